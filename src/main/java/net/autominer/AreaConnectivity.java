@@ -0,0 +1,180 @@
+package net.autominer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Connected components of the cells in a box around the area being mined, kept in two union-find
+ * forests: one joined by moves that walk through free space and one that also allows moves which
+ * break blocks. A target whose stand cells share no component with the player cannot be reached
+ * by a search that stays inside the box, so it is planned for last.
+ * <p>
+ * Like the nodes the {@link Pathfinder} expands, only cells a move can end in are joined with the
+ * cells their moves lead to: cells on solid ground (for the digging forest, also ones that are
+ * solid themselves and would be dug into) or on a block pillared up from below. The walking forest
+ * also needs the feet and head cells open, so a wall between two sealed rooms joins them only by
+ * digging. Moves are treated as two-way, so a drop the miner cannot climb back up still joins two cells.
+ * Components can therefore only be too large, never too small: {@link Reachability#ISOLATED} is
+ * right for any path that stays inside the box, the other labels are hints. A route that leaves the
+ * box is missed, so callers still run a real search before giving a target up. Mined blocks only add
+ * moves, so updates union the moves around the changed block; moves that disappear are picked up
+ * by the next full build.
+ */
+public class AreaConnectivity {
+    public enum Reachability {
+        REACHABLE,      // walkable from the player without breaking blocks
+        NEEDS_DIGGING,  // reachable, but only through blocks that have to be broken
+        ISOLATED,       // no path of any kind
+        UNKNOWN         // target or player outside the analyzed box
+    }
+
+    private static final int PILLAR_UP = MovementModel.moveBetween(0, 1, 0);
+    // 4M cells, 32 MB for both forests.
+    private static final int MAX_CELLS = 1 << 22;
+
+    private final int minX, minY, minZ, sizeX, sizeY, sizeZ;
+    private final int[] walkParent;
+    private final int[] digParent;
+    private int version;
+
+    // Labels per target, valid while the components are at labelsVersion and the player is in labelsPlayerRoot.
+    private final Map<BlockPos, Reachability> labels = new HashMap<>();
+    private int labelsVersion = -1;
+    private int labelsPlayerRoot = -1;
+
+    private AreaConnectivity(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        int cells = sizeX * sizeY * sizeZ;
+        this.walkParent = new int[cells];
+        this.digParent = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            walkParent[i] = i;
+            digParent[i] = i;
+        }
+    }
+
+    /**
+     * Joins every cell between {@code min} and {@code max} (inclusive) with the cells its moves lead to.
+     * @return the components, or null if the box is too large to analyze.
+     */
+    public static AreaConnectivity build(MovementModel movement, BlockPos min, BlockPos max) {
+        if ((long) (max.getX() - min.getX() + 1) * (max.getY() - min.getY() + 1) * (max.getZ() - min.getZ() + 1) > MAX_CELLS) return null;
+        AreaConnectivity connectivity = new AreaConnectivity(min.getX(), min.getY(), min.getZ(),
+                max.getX() - min.getX() + 1, max.getY() - min.getY() + 1, max.getZ() - min.getZ() + 1);
+        for (int x = min.getX(); x <= max.getX(); x++) {
+            for (int z = min.getZ(); z <= max.getZ(); z++) {
+                for (int y = min.getY(); y <= max.getY(); y++) {
+                    connectivity.unionMoves(movement, x, y, z);
+                }
+            }
+        }
+        return connectivity;
+    }
+
+    /** True if a change at {@code pos} can affect the moves of a cell in the box. */
+    public boolean isAffectedBy(BlockPos pos) {
+        int dx = pos.getX() - minX, dy = pos.getY() - minY, dz = pos.getZ() - minZ;
+        return dx >= -MovementModel.INFLUENCE_HORIZONTAL && dx < sizeX + MovementModel.INFLUENCE_HORIZONTAL
+                && dy >= -MovementModel.INFLUENCE_ABOVE && dy < sizeY + MovementModel.INFLUENCE_BELOW
+                && dz >= -MovementModel.INFLUENCE_HORIZONTAL && dz < sizeZ + MovementModel.INFLUENCE_HORIZONTAL;
+    }
+
+    /** Unions the moves of every cell whose moves can read the changed block. Client thread only. */
+    public void blockChanged(MovementModel movement, BlockPos pos) {
+        if (!isAffectedBy(pos)) return;
+        for (int dy = -MovementModel.INFLUENCE_BELOW; dy <= MovementModel.INFLUENCE_ABOVE; dy++) {
+            for (int dx = -MovementModel.INFLUENCE_HORIZONTAL; dx <= MovementModel.INFLUENCE_HORIZONTAL; dx++) {
+                for (int dz = -MovementModel.INFLUENCE_HORIZONTAL; dz <= MovementModel.INFLUENCE_HORIZONTAL; dz++) {
+                    unionMoves(movement, pos.getX() + dx, pos.getY() + dy, pos.getZ() + dz);
+                }
+            }
+        }
+    }
+
+    /**
+     * Classifies {@code target} for a player standing in {@code player}. Labels are cached until the
+     * components change or the player moves into another component, so repeated lookups are O(1).
+     */
+    public Reachability classify(BlockPos target, BlockPos player) {
+        int playerCell = index(player.getX(), player.getY(), player.getZ());
+        if (playerCell < 0) return Reachability.UNKNOWN;
+        int playerRoot = find(digParent, playerCell);
+        if (labelsVersion != version || labelsPlayerRoot != playerRoot) {
+            labels.clear();
+            labelsVersion = version;
+            labelsPlayerRoot = playerRoot;
+        }
+        Reachability label = labels.get(target);
+        if (label == null) {
+            label = computeLabel(target, playerCell, playerRoot);
+            labels.put(target.toImmutable(), label);
+        }
+        return label;
+    }
+
+    private Reachability computeLabel(BlockPos target, int playerCell, int playerDigRoot) {
+        int playerWalkRoot = find(walkParent, playerCell);
+        boolean inBox = false;
+        boolean needsDigging = false;
+        // Every cell a stand position could be in (see StandRegion), so ISOLATED never misses a stand cell.
+        for (int dy = -StandRegion.MAX_DY_BELOW; dy <= StandRegion.MAX_DY_ABOVE; dy++) {
+            for (int dx = -StandRegion.MAX_HORIZONTAL; dx <= StandRegion.MAX_HORIZONTAL; dx++) {
+                for (int dz = -StandRegion.MAX_HORIZONTAL; dz <= StandRegion.MAX_HORIZONTAL; dz++) {
+                    int cell = index(target.getX() + dx, target.getY() + dy, target.getZ() + dz);
+                    if (cell < 0) continue;
+                    inBox = true;
+                    if (find(walkParent, cell) == playerWalkRoot) return Reachability.REACHABLE;
+                    if (find(digParent, cell) == playerDigRoot) needsDigging = true;
+                }
+            }
+        }
+        if (!inBox) return Reachability.UNKNOWN;
+        return needsDigging ? Reachability.NEEDS_DIGGING : Reachability.ISOLATED;
+    }
+
+    private void unionMoves(MovementModel movement, int x, int y, int z) {
+        int cell = index(x, y, z);
+        if (cell < 0) return;
+        PassabilityCache passability = movement.getPassability();
+        // The player can only be in a cell with ground under it, placed or not.
+        if (!passability.isSolid(x, y - 1, z) && movement.cost(x, y - 1, z, PILLAR_UP) == MovementModel.IMPOSSIBLE) return;
+        boolean open = passability.isWalkable(x, y, z) && passability.isWalkable(x, y + 1, z);
+        for (int move = 0; move < MovementModel.MOVES; move++) {
+            int next = index(x + MovementModel.MOVE_X[move], y + MovementModel.MOVE_Y[move], z + MovementModel.MOVE_Z[move]);
+            if (next < 0) continue;
+            if (movement.cost(x, y, z, move) == MovementModel.IMPOSSIBLE) continue;
+            union(digParent, cell, next);
+            if (open && !movement.requiresBreaking(x, y, z, move)) union(walkParent, cell, next);
+        }
+    }
+
+    private void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a), rootB = find(parent, b);
+        if (rootA == rootB) return;
+        // Smaller index becomes the root; with path halving the trees stay shallow enough.
+        if (rootA < rootB) parent[rootB] = rootA;
+        else parent[rootA] = rootB;
+        version++;
+    }
+
+    private static int find(int[] parent, int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+
+    private int index(int x, int y, int z) {
+        int dx = x - minX, dy = y - minY, dz = z - minZ;
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= sizeX || dy >= sizeY || dz >= sizeZ) return -1;
+        return (dx * sizeZ + dz) * sizeY + dy;
+    }
+}
@@ -25,6 +25,65 @@ public class AutoMinerConfig {
     // Maximale Anzahl von Ticks bevor ein "Stuck" Zustand erkannt wird
     public int maxStuckTicks = 60;
 
+    // Runs the pathfinder on a background thread against a snapshot of the area instead of slicing it across ticks.
+    public boolean backgroundPathfinding = true;
+
+    // Keeps the search tree (D* Lite) and repairs the path when blocks near it change, instead of searching again.
+    public boolean incrementalReplanning = false;
+
+    // Plans far targets over 16x16x16 clusters first and only searches block by block to the next cluster.
+    public boolean hierarchicalPathfinding = true;
+
+    // Builds a walking-distance field over the current layer after each mined block and reads routes from it (needs backgroundPathfinding).
+    public boolean flowFieldPlanning = true;
+
+    // When the node limit is hit, walk to the node closest to the goal and plan again from there instead of skipping the block.
+    public boolean partialPathsOnLimit = true;
+
+    // When the node limit is hit, continue with IDA* (memory grows with path length only) before giving up.
+    public boolean boundedMemorySearch = false;
+
+    // Labels connected regions of each layer up front and skips targets no search could reach (needs backgroundPathfinding).
+    public boolean connectivityAnalysis = true;
+
+    // Charges broken blocks on a path by their predicted break time with the hotbar tools instead of a flat cost.
+    public boolean breakTimeCosts = true;
+
+    // Sprints along level stretches of a path and plans with sprint speed while the hunger bar allows it.
+    public boolean allowSprint = true;
+
+    // Fall damage (in half hearts) a planned drop may cost; 0 keeps drops at 3 blocks.
+    public int maxFallDamage = 0;
+
+    // Lets paths go straight up by placing cobblestone, dirt or similar blocks from the hotbar below the player.
+    // Off by default, since it uses up the player's blocks.
+    public boolean allowPillaring = false;
+
+    // Drops path nodes the miner can skip by walking in a straight line, so it steers towards corners only.
+    public boolean smoothPaths = true;
+
+    // ASTAR plans optimal paths, WEIGHTED plans fast paths costing at most searchEpsilon times the optimum,
+    // ANYTIME (ARA*) starts like WEIGHTED and refines the path towards optimal while the miner walks.
+    public SearchMode searchMode = SearchMode.ASTAR;
+
+    // Heuristic weight of WEIGHTED searches and of the first ANYTIME path; higher plans faster, lower plans shorter paths.
+    public double searchEpsilon = 2.0;
+
+    // How much each ANYTIME refinement round lowers the weight, down to 1.
+    public double epsilonStep = 0.5;
+
+    // Reuses stretches of recent routes when the next target can be mined from a cell on one of them, instead of searching.
+    public boolean pathCache = true;
+    // Plans stand positions that reach as many blocks as possible and mines all of them before moving on.
+    public boolean standCoverPlanning = true;
+    // How the area is split into batches: LAYER, THREE_LAYER, SPIRAL or COLUMN, or AUTO to take the
+    // one whose cost model predicts the least walking for the area's shape.
+    public MiningStrategyType miningStrategy = MiningStrategyType.AUTO;
+    // Reorders the planned stops, or the closest upcoming targets when there are none, to cut predicted
+    // walking between stand cells plus breaking time, and logs the predicted and actual ticks of every
+    // route and broken block.
+    public boolean optimizeRoute = true;
+
     public int getPathfindingLimit() {
         return maxSearchNodes;
     }
@@ -0,0 +1,172 @@
+package net.autominer;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Read-only copy of the chunk sections around a mining area.
+ * The pathfinder reads from a snapshot on the planner thread so it never touches the live client world.
+ * Sections that did not change since the previous snapshot are shared instead of copied again.
+ */
+public class BlockSnapshot implements BlockView {
+    // Unloaded chunks and everything outside the captured box count as solid, so the search stays inside.
+    private static final BlockState OUTSIDE = Blocks.BARRIER.getDefaultState();
+    private static final BlockState EMPTY = Blocks.AIR.getDefaultState();
+    private static final int MAX_SECTIONS = 24 * 24 * 24;
+
+    private final World world;
+    private final int minSectionX, minSectionY, minSectionZ;
+    private final int sizeX, sizeY, sizeZ;
+    private final SectionCopy[] copies;
+    private final ChunkSection[] sources;
+    private final boolean[] stale;
+
+    private BlockSnapshot(World world, int minSectionX, int minSectionY, int minSectionZ, int sizeX, int sizeY, int sizeZ) {
+        this.world = world;
+        this.minSectionX = minSectionX;
+        this.minSectionY = minSectionY;
+        this.minSectionZ = minSectionZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        int count = sizeX * sizeY * sizeZ;
+        this.copies = new SectionCopy[count];
+        this.sources = new ChunkSection[count];
+        this.stale = new boolean[count];
+    }
+
+    /**
+     * Copies every section between {@code min} and {@code max} (inclusive). Must run on the client thread.
+     * @param previous an older snapshot whose unchanged sections can be reused, or null.
+     * @return the snapshot, or null if the box is too large to copy in one tick.
+     */
+    @Nullable
+    public static BlockSnapshot capture(World world, BlockPos min, BlockPos max, @Nullable BlockSnapshot previous) {
+        int bottomSection = world.getBottomSectionCoord();
+        int topSection = bottomSection + world.countVerticalSections() - 1;
+        int minSX = min.getX() >> 4, minSZ = min.getZ() >> 4;
+        int minSY = Math.max(min.getY() >> 4, bottomSection);
+        int maxSX = max.getX() >> 4, maxSZ = max.getZ() >> 4;
+        int maxSY = Math.min(max.getY() >> 4, topSection);
+        if (maxSY < minSY) return null;
+
+        int sizeX = maxSX - minSX + 1, sizeY = maxSY - minSY + 1, sizeZ = maxSZ - minSZ + 1;
+        if ((long) sizeX * sizeY * sizeZ > MAX_SECTIONS) return null;
+
+        BlockSnapshot snapshot = new BlockSnapshot(world, minSX, minSY, minSZ, sizeX, sizeY, sizeZ);
+        boolean canReuse = previous != null && previous.world == world;
+
+        for (int sx = minSX; sx <= maxSX; sx++) {
+            for (int sz = minSZ; sz <= maxSZ; sz++) {
+                WorldChunk chunk = world.getChunkManager().getWorldChunk(sx, sz);
+                if (chunk == null) continue; // stays null -> OUTSIDE
+                ChunkSection[] sections = chunk.getSectionArray();
+                for (int sy = minSY; sy <= maxSY; sy++) {
+                    ChunkSection section = sections[world.sectionCoordToIndex(sy)];
+                    int index = snapshot.index(sx, sy, sz);
+                    snapshot.sources[index] = section;
+                    if (canReuse) {
+                        int previousIndex = previous.indexOrMinus(sx, sy, sz);
+                        if (previousIndex >= 0 && previous.sources[previousIndex] == section && !previous.stale[previousIndex]) {
+                            snapshot.copies[index] = previous.copies[previousIndex];
+                            continue;
+                        }
+                    }
+                    snapshot.copies[index] = section.isEmpty() ? null : new SectionCopy(section.getBlockStateContainer().copy());
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Marks the section containing {@code pos} as changed, so the next capture copies it again.
+     * Called from the client thread when a block update arrives.
+     */
+    public void markStale(BlockPos pos) {
+        int index = indexOrMinus(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        if (index >= 0) stale[index] = true;
+    }
+
+    public boolean contains(BlockPos pos) {
+        return indexOrMinus(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4) >= 0;
+    }
+
+    private int index(int sx, int sy, int sz) {
+        return ((sx - minSectionX) * sizeZ + (sz - minSectionZ)) * sizeY + (sy - minSectionY);
+    }
+
+    private int indexOrMinus(int sx, int sy, int sz) {
+        if (sx < minSectionX || sx >= minSectionX + sizeX) return -1;
+        if (sy < minSectionY || sy >= minSectionY + sizeY) return -1;
+        if (sz < minSectionZ || sz >= minSectionZ + sizeZ) return -1;
+        return index(sx, sy, sz);
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        int index = indexOrMinus(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        if (index < 0 || sources[index] == null) return OUTSIDE;
+        SectionCopy copy = copies[index];
+        if (copy == null) return EMPTY;
+        return copy.states.get(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+    }
+
+    /**
+     * Passability bits of one section (see {@link PassabilityCache}). Computed once per section copy,
+     * so unchanged sections keep their bits across snapshots. Only called from the planner thread.
+     */
+    long[] passabilityBits(int sx, int sy, int sz) {
+        int index = indexOrMinus(sx, sy, sz);
+        if (index < 0 || sources[index] == null) return PassabilityCache.BLOCKED_SECTION;
+        SectionCopy copy = copies[index];
+        if (copy == null) return PassabilityCache.EMPTY_SECTION;
+        long[] bits = copy.passability;
+        if (bits == null) {
+            bits = PassabilityCache.computeSection(this, sx, sy, sz);
+            copy.passability = bits;
+        }
+        return bits;
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    @Nullable
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+        // Block entities are not copied; the pathfinder only needs states and shapes.
+        return null;
+    }
+
+    @Override
+    public int getHeight() {
+        return world.getHeight();
+    }
+
+    @Override
+    public int getBottomY() {
+        return world.getBottomY();
+    }
+
+    private static class SectionCopy {
+        final PalettedContainer<BlockState> states;
+        volatile long[] passability;
+
+        SectionCopy(PalettedContainer<BlockState> states) {
+            this.states = states;
+        }
+    }
+}
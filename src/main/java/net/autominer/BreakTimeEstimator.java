@@ -0,0 +1,160 @@
+package net.autominer;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.enchantment.Enchantment;
+import net.minecraft.enchantment.EnchantmentHelper;
+import net.minecraft.enchantment.Enchantments;
+import net.minecraft.entity.attribute.EntityAttributes;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+
+/**
+ * Predicts how many ticks breaking a block takes with the best usable hotbar tool, using the same
+ * speed and Efficiency math as the tool selection in {@link MiningLogic}, slowed down like vanilla
+ * when the player is in the air or under water. Works on copies of the hotbar and the player's
+ * submerged mining speed, so a captured estimator can be used on the planner thread. The progress
+ * per tick of the best tool is cached per {@link BlockState}; hardness does not depend on the
+ * position for any vanilla block. The cache is shared by both threads, and an estimator stays valid
+ * until {@link #matches} says the hotbar's tools changed.
+ */
+public class BreakTimeEstimator {
+    public static final int UNBREAKABLE = -1;
+    // Survival players wait 5 ticks after a block breaks before the next one starts.
+    static final int BREAK_COOLDOWN_TICKS = 5;
+    private static final int MIN_DURABILITY = 100;
+    // Breaking while not standing on the ground takes five times as long.
+    private static final float AIRBORNE_FACTOR = 0.2f;
+
+    private final ItemStack[] tools;
+    private final RegistryEntry<Enchantment> efficiency;
+    // Speed factor under water: 0.2, or 1 with Aqua Affinity.
+    private final float submergedSpeed;
+    // Best progress per tick, infinite for blocks without hardness and negative for unbreakable ones.
+    private final Map<BlockState, Float> progress = new ConcurrentHashMap<>();
+
+    private BreakTimeEstimator(ItemStack[] tools, @Nullable RegistryEntry<Enchantment> efficiency, float submergedSpeed) {
+        this.tools = tools;
+        this.efficiency = efficiency;
+        this.submergedSpeed = submergedSpeed;
+    }
+
+    /** Copies the hotbar and the player's submerged mining speed. Must run on the client thread. */
+    public static BreakTimeEstimator capture(PlayerEntity player, @Nullable RegistryEntry<Enchantment> efficiency) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] tools = new ItemStack[9];
+        for (int i = 0; i < 9; i++) {
+            tools[i] = inventory.getStack(i).copy();
+        }
+        return new BreakTimeEstimator(tools, efficiency, (float) player.getAttributeValue(EntityAttributes.SUBMERGED_MINING_SPEED));
+    }
+
+    /**
+     * True if the player's hotbar holds the same tools as when this was captured and the submerged
+     * speed is the same. Wear only counts once it makes a tool unusable, and stack sizes do not count,
+     * so mining with a tool or picking up blocks keeps the estimator. Must run on the client thread.
+     */
+    public boolean matches(PlayerEntity player) {
+        if (player.getAttributeValue(EntityAttributes.SUBMERGED_MINING_SPEED) != submergedSpeed) return false;
+        PlayerInventory inventory = player.getInventory();
+        for (int i = 0; i < 9; i++) {
+            if (!sameTool(tools[i], inventory.getStack(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameTool(ItemStack captured, ItemStack current) {
+        if (!ItemStack.areItemsEqual(captured, current)) return false;
+        if (!captured.getEnchantments().equals(current.getEnchantments())) return false;
+        return !captured.isDamageable() || worn(captured) == worn(current);
+    }
+
+    private static boolean worn(ItemStack stack) {
+        return stack.getMaxDamage() - stack.getDamage() < MIN_DURABILITY;
+    }
+
+    /** @return the Efficiency enchantment entry, or null if the registry is not available. */
+    @Nullable
+    public static RegistryEntry<Enchantment> findEfficiency(World world) {
+        Optional<Registry<Enchantment>> registry = world.getRegistryManager().getOptional(RegistryKeys.ENCHANTMENT);
+        if (registry.isEmpty()) return null;
+        Enchantment enchantment = registry.get().get(Enchantments.EFFICIENCY);
+        return enchantment == null ? null : registry.get().getEntry(enchantment);
+    }
+
+    /** Tools with little durability left are kept out of use, and so are unsuitable items that cannot wear down. */
+    public static boolean isUsable(ItemStack stack, BlockState state) {
+        if (!stack.isDamageable() && !stack.isSuitableFor(state)) return false;
+        return !stack.isDamageable() || !worn(stack);
+    }
+
+    /** Mining speed of {@code stack} on {@code state}, including the Efficiency bonus. */
+    public static float miningSpeed(ItemStack stack, BlockState state, @Nullable RegistryEntry<Enchantment> efficiency) {
+        float speed = stack.getMiningSpeedMultiplier(state);
+        if (speed > 1.0f && efficiency != null) {
+            int level = EnchantmentHelper.getLevel(efficiency, stack);
+            if (level > 0) {
+                speed += level * level + 1;
+            }
+        }
+        return speed;
+    }
+
+    /** @return ticks until the block breaks standing on dry ground, 0 for instant breaks, or {@link #UNBREAKABLE}. */
+    public int breakTicks(BlockView world, BlockPos pos, BlockState state) {
+        return breakTicks(world, pos, state, true, false);
+    }
+
+    /**
+     * @param onGround whether the player stands on the ground; in the air breaking is five times slower.
+     * @param submerged whether the player's eyes are under water, which applies the submerged mining speed.
+     * @return ticks until the block breaks, 0 for instant breaks, or {@link #UNBREAKABLE}.
+     */
+    public int breakTicks(BlockView world, BlockPos pos, BlockState state, boolean onGround, boolean submerged) {
+        Float cached = progress.get(state);
+        float best = cached != null ? cached : computeProgress(world, pos, state);
+        if (cached == null) progress.put(state, best);
+        if (best < 0) return UNBREAKABLE;
+        if (submerged) best *= submergedSpeed;
+        if (!onGround) best *= AIRBORNE_FACTOR;
+        if (best >= 1.0f) return 0;
+        return (int) Math.ceil(1.0f / best) + BREAK_COOLDOWN_TICKS;
+    }
+
+    /** Break time in walking steps, the unit of {@link MovementModel} costs, or {@link MovementModel#IMPOSSIBLE}. */
+    public double breakCost(BlockView world, BlockPos pos, BlockState state) {
+        int breakTicks = breakTicks(world, pos, state);
+        return breakTicks == UNBREAKABLE ? MovementModel.IMPOSSIBLE : breakTicks / MovementModel.WALK_TICKS;
+    }
+
+    private float computeProgress(BlockView world, BlockPos pos, BlockState state) {
+        float hardness = state.getHardness(world, pos);
+        if (hardness < 0) return UNBREAKABLE;
+        if (hardness == 0) return Float.POSITIVE_INFINITY;
+
+        // Bare hand (or any item without a bonus) is always available as a fallback.
+        float best = progressPerTick(1.0f, !state.isToolRequired(), hardness);
+        for (ItemStack tool : tools) {
+            if (tool.isEmpty() || !isUsable(tool, state)) continue;
+            boolean canHarvest = !state.isToolRequired() || tool.isSuitableFor(state);
+            best = Math.max(best, progressPerTick(miningSpeed(tool, state, efficiency), canHarvest, hardness));
+        }
+        return best;
+    }
+
+    private static float progressPerTick(float speed, boolean canHarvest, float hardness) {
+        return speed / hardness / (canHarvest ? 30 : 100);
+    }
+}
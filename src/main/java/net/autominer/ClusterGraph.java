@@ -0,0 +1,377 @@
+package net.autominer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Abstract graph for hierarchical pathfinding (HPA*) over 16x16x16 clusters covering the mining area
+ * and one cluster around it. Each cluster keeps one entrance per move and connected stretch of
+ * cells that move takes into a neighboring cluster, across a face, an edge or down a drop. Edges
+ * between cells of a cluster are found by a Dijkstra that never leaves the cluster, so a long route
+ * costs a search over entrances instead of over every block.
+ * <p>
+ * Clusters are built lazily and dropped again when a block inside them (or close enough to change
+ * a move across their faces) is updated, so only the layers being cleared are rebuilt. A cluster
+ * also keeps the {@link MovementModel.CostParameters} its costs were computed with and is rebuilt
+ * when a route is planned with a model that prices its moves differently.
+ */
+public class ClusterGraph {
+    static final int CLUSTER_SHIFT = 4;
+    static final int CLUSTER_SIZE = 1 << CLUSTER_SHIFT;
+    private static final int CLUSTER_CELLS = CLUSTER_SIZE * CLUSTER_SIZE * CLUSTER_SIZE;
+    private static final int MAX_ABSTRACT_NODES = 8192;
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private final int minCX, minCY, minCZ, maxCX, maxCY, maxCZ;
+    private final LongIndexMap clusterIndex = new LongIndexMap(256);
+    private Cluster[] clusters = new Cluster[256];
+    private int clusterCount;
+    // Cluster keys reported by the client thread, dropped before the next route is planned.
+    private final Queue<Long> dirtyClusters = new ConcurrentLinkedQueue<>();
+
+    private MovementModel movement;
+
+    // Scratch state for the in-cluster Dijkstra, indexed by cell within the cluster.
+    private final double[] localG = new double[CLUSTER_CELLS];
+    private final IndexedMinHeap localOpen = new IndexedMinHeap(CLUSTER_CELLS);
+
+    // Abstract search state, reused between routes.
+    private final LongIndexMap nodeIndex = new LongIndexMap(1024);
+    private final IndexedMinHeap open = new IndexedMinHeap(1024);
+    private long[] nodePos = new long[1024];
+    private int[] nodeParent = new int[1024];
+    private double[] nodeG = new double[1024];
+    private int nodeCount;
+
+    public ClusterGraph(MiningArea area) {
+        this.minCX = (area.getStartPos().getX() >> CLUSTER_SHIFT) - 1;
+        this.minCY = (area.getStartPos().getY() >> CLUSTER_SHIFT) - 1;
+        this.minCZ = (area.getStartPos().getZ() >> CLUSTER_SHIFT) - 1;
+        this.maxCX = (area.getEndPos().getX() >> CLUSTER_SHIFT) + 1;
+        this.maxCY = (area.getEndPos().getY() >> CLUSTER_SHIFT) + 1;
+        this.maxCZ = (area.getEndPos().getZ() >> CLUSTER_SHIFT) + 1;
+    }
+
+    /**
+     * Drops every cluster whose cells or face crossings can read {@code pos}.
+     * Safe to call from the client thread while a route is being planned.
+     */
+    public void blockChanged(BlockPos pos) {
+        int x = pos.getX(), y = pos.getY(), z = pos.getZ();
+        for (int cx = (x - MovementModel.INFLUENCE_HORIZONTAL) >> CLUSTER_SHIFT; cx <= (x + MovementModel.INFLUENCE_HORIZONTAL) >> CLUSTER_SHIFT; cx++) {
+            for (int cy = (y - MovementModel.INFLUENCE_BELOW) >> CLUSTER_SHIFT; cy <= (y + MovementModel.INFLUENCE_ABOVE) >> CLUSTER_SHIFT; cy++) {
+                for (int cz = (z - MovementModel.INFLUENCE_HORIZONTAL) >> CLUSTER_SHIFT; cz <= (z + MovementModel.INFLUENCE_HORIZONTAL) >> CLUSTER_SHIFT; cz++) {
+                    dirtyClusters.add(BlockPos.asLong(cx, cy, cz));
+                }
+            }
+        }
+    }
+
+    /**
+     * Plans a coarse route from {@code start} to the cluster containing {@code target}.
+     * @return the entrance cells along the route (excluding {@code start}), an empty list if
+     *         {@code start} is already in the target's cluster, or null if no route exists.
+     */
+    public synchronized List<BlockPos> findRoute(MovementModel movement, BlockPos start, BlockPos target) {
+        this.movement = movement;
+        Long dirty;
+        while ((dirty = dirtyClusters.poll()) != null) {
+            int index = clusterIndex.get(dirty);
+            if (index >= 0) clusters[index] = null;
+        }
+
+        int targetCX = target.getX() >> CLUSTER_SHIFT, targetCY = target.getY() >> CLUSTER_SHIFT, targetCZ = target.getZ() >> CLUSTER_SHIFT;
+        nodeIndex.clear();
+        open.clear();
+        nodeCount = 0;
+        int startNode = newNode(start.asLong(), -1, 0);
+        open.insertOrUpdate(startNode, heuristic(start.asLong(), targetCX, targetCY, targetCZ));
+
+        while (!open.isEmpty() && nodeCount < MAX_ABSTRACT_NODES) {
+            int current = open.poll();
+            long pos = nodePos[current];
+            int cx = BlockPos.unpackLongX(pos) >> CLUSTER_SHIFT, cy = BlockPos.unpackLongY(pos) >> CLUSTER_SHIFT, cz = BlockPos.unpackLongZ(pos) >> CLUSTER_SHIFT;
+            if (cx == targetCX && cy == targetCY && cz == targetCZ) {
+                return reconstructRoute(current);
+            }
+
+            Cluster cluster = cluster(cx, cy, cz);
+            if (cluster == null) continue;
+            int source = cluster.edgesFrom(pos);
+            long[] targets = cluster.edgeTargets[source];
+            double[] costs = cluster.edgeCosts[source];
+            for (int i = 0; i < targets.length; i++) {
+                double g = nodeG[current] + costs[i];
+                int node = nodeIndex.get(targets[i]);
+                if (node < 0) {
+                    node = newNode(targets[i], current, g);
+                } else if (g < nodeG[node]) {
+                    nodeParent[node] = current;
+                    nodeG[node] = g;
+                } else {
+                    continue;
+                }
+                open.insertOrUpdate(node, g + heuristic(targets[i], targetCX, targetCY, targetCZ));
+            }
+        }
+        return null;
+    }
+
+    private List<BlockPos> reconstructRoute(int endNode) {
+        List<BlockPos> route = new ArrayList<>();
+        for (int node = endNode; nodeParent[node] >= 0; node = nodeParent[node]) {
+            route.add(0, BlockPos.fromLong(nodePos[node]));
+        }
+        return route;
+    }
+
+    private Cluster cluster(int cx, int cy, int cz) {
+        if (!clusterExists(cx, cy, cz)) return null;
+        long key = BlockPos.asLong(cx, cy, cz);
+        int index = clusterIndex.get(key);
+        if (index >= 0 && clusters[index] != null) {
+            Cluster cached = clusters[index];
+            int baseY = cy << CLUSTER_SHIFT;
+            if (cached.builtWith.sameCosts(movement.costParameters(), baseY - MovementModel.MAX_DROP, baseY + CLUSTER_SIZE)) return cached;
+        }
+        if (index < 0) {
+            if (clusterCount == clusters.length) clusters = Arrays.copyOf(clusters, clusterCount * 2);
+            index = clusterCount++;
+            clusterIndex.put(key, index);
+        }
+        Cluster cluster = new Cluster(cx, cy, cz);
+        clusters[index] = cluster;
+        return cluster;
+    }
+
+    private boolean clusterExists(int cx, int cy, int cz) {
+        return cx >= minCX && cx <= maxCX && cy >= minCY && cy <= maxCY && cz >= minCZ && cz <= maxCZ;
+    }
+
+    private int newNode(long pos, int parent, double g) {
+        if (nodeCount == nodePos.length) {
+            int capacity = nodeCount * 2;
+            nodePos = Arrays.copyOf(nodePos, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeG = Arrays.copyOf(nodeG, capacity);
+        }
+        int node = nodeCount++;
+        nodePos[node] = pos;
+        nodeParent[node] = parent;
+        nodeG[node] = g;
+        nodeIndex.put(pos, node);
+        return node;
+    }
+
+    /**
+     * Lower bound on the cost from {@code pos} to the target's cluster, where a route ends: the
+     * straight-line distance to the cluster's box at the cheapest cost per block (see
+     * {@link MovementModel#minCostPerBlock()}). The target itself, and any stand cell for it, can be
+     * further away than the box, so distances to them would overestimate.
+     */
+    private double heuristic(long pos, int targetCX, int targetCY, int targetCZ) {
+        double dx = distanceToCluster(BlockPos.unpackLongX(pos), targetCX);
+        double dy = distanceToCluster(BlockPos.unpackLongY(pos), targetCY);
+        double dz = distanceToCluster(BlockPos.unpackLongZ(pos), targetCZ);
+        return Math.sqrt(dx * dx + dy * dy + dz * dz) * movement.minCostPerBlock();
+    }
+
+    private static int distanceToCluster(int coordinate, int cluster) {
+        int min = cluster << CLUSTER_SHIFT;
+        return Math.max(0, Math.max(min - coordinate, coordinate - (min + CLUSTER_SIZE - 1)));
+    }
+
+    private static int localIndex(int lx, int ly, int lz) {
+        return (ly << (2 * CLUSTER_SHIFT)) | (lz << CLUSTER_SHIFT) | lx;
+    }
+
+    private class Cluster {
+        final int baseX, baseY, baseZ;
+        // What the exit and edge costs below were computed with.
+        final MovementModel.CostParameters builtWith;
+        // Exits: a cell of this cluster, the move that leaves it and the cost of that move.
+        final long[] exitCells;
+        final int[] exitMoves;
+        final double[] exitCosts;
+        // Outgoing abstract edges per source cell, computed on first use.
+        final LongIndexMap sources = new LongIndexMap(16);
+        long[][] edgeTargets = new long[16][];
+        double[][] edgeCosts = new double[16][];
+        int sourceCount;
+
+        Cluster(int cx, int cy, int cz) {
+            this.baseX = cx << CLUSTER_SHIFT;
+            this.baseY = cy << CLUSTER_SHIFT;
+            this.baseZ = cz << CLUSTER_SHIFT;
+            this.builtWith = movement.costParameters();
+
+            long[] cells = new long[64];
+            int[] moves = new int[64];
+            double[] costs = new double[64];
+            int count = 0;
+            // Every move can leave the cluster: diagonals and ledges across an edge, drops into the cluster below.
+            int[] leadsTo = new int[CLUSTER_CELLS];
+            for (int move = 0; move < MovementModel.MOVES; move++) {
+                int[] entrances = exitEntrances(cx, cy, cz, move, leadsTo);
+                for (int cell : entrances) {
+                    if (count == cells.length) {
+                        cells = Arrays.copyOf(cells, count * 2);
+                        moves = Arrays.copyOf(moves, count * 2);
+                        costs = Arrays.copyOf(costs, count * 2);
+                    }
+                    int x = baseX + (cell & (CLUSTER_SIZE - 1));
+                    int y = baseY + (cell >>> (2 * CLUSTER_SHIFT));
+                    int z = baseZ + ((cell >>> CLUSTER_SHIFT) & (CLUSTER_SIZE - 1));
+                    cells[count] = BlockPos.asLong(x, y, z);
+                    moves[count] = move;
+                    costs[count] = movement.cost(x, y, z, move);
+                    count++;
+                }
+            }
+            this.exitCells = Arrays.copyOf(cells, count);
+            this.exitMoves = Arrays.copyOf(moves, count);
+            this.exitCosts = Arrays.copyOf(costs, count);
+        }
+
+        /**
+         * Finds the cells whose move {@code move} is possible and ends in another existing cluster, and
+         * picks one entrance per group of them, the cell closest to the group's center. A group is a
+         * 6-connected stretch of such cells leading into the same cluster; for face moves it is a
+         * 4-connected stretch of the face.
+         * @param leadsTo scratch array, one entry per cell of the cluster.
+         * @return local cell indices.
+         */
+        private int[] exitEntrances(int cx, int cy, int cz, int move, int[] leadsTo) {
+            int mx = MovementModel.MOVE_X[move], my = MovementModel.MOVE_Y[move], mz = MovementModel.MOVE_Z[move];
+            int last = CLUSTER_SIZE - 1;
+            // Per cell: the neighboring cluster the move ends in, as (ox + 1) * 9 + (oy + 1) * 3 + (oz + 1), or -1.
+            Arrays.fill(leadsTo, -1);
+            boolean any = false;
+            for (int ly = 0; ly < CLUSTER_SIZE; ly++) {
+                int oy = (ly + my) >> CLUSTER_SHIFT;
+                for (int lz = 0; lz < CLUSTER_SIZE; lz++) {
+                    int oz = (lz + mz) >> CLUSTER_SHIFT;
+                    for (int lx = 0; lx < CLUSTER_SIZE; lx++) {
+                        int ox = (lx + mx) >> CLUSTER_SHIFT;
+                        if (ox == 0 && oy == 0 && oz == 0) continue;
+                        if (!clusterExists(cx + ox, cy + oy, cz + oz)) continue;
+                        if (movement.cost(baseX + lx, baseY + ly, baseZ + lz, move) == MovementModel.IMPOSSIBLE) continue;
+                        leadsTo[localIndex(lx, ly, lz)] = (ox + 1) * 9 + (oy + 1) * 3 + (oz + 1);
+                        any = true;
+                    }
+                }
+            }
+            if (!any) return new int[0];
+
+            int[] result = new int[8];
+            int resultCount = 0;
+            int[] stack = new int[CLUSTER_CELLS];
+            int[] group = new int[CLUSTER_CELLS];
+            for (int seed = 0; seed < CLUSTER_CELLS; seed++) {
+                int target = leadsTo[seed];
+                if (target < 0) continue;
+                int groupSize = 0, stackSize = 0;
+                double sumX = 0, sumY = 0, sumZ = 0;
+                leadsTo[seed] = -1;
+                stack[stackSize++] = seed;
+                while (stackSize > 0) {
+                    int cell = stack[--stackSize];
+                    group[groupSize++] = cell;
+                    int lx = cell & last, ly = cell >>> (2 * CLUSTER_SHIFT), lz = (cell >>> CLUSTER_SHIFT) & last;
+                    sumX += lx;
+                    sumY += ly;
+                    sumZ += lz;
+                    if (lx > 0) stackSize = push(leadsTo, target, cell - 1, stack, stackSize);
+                    if (lx < last) stackSize = push(leadsTo, target, cell + 1, stack, stackSize);
+                    if (lz > 0) stackSize = push(leadsTo, target, cell - CLUSTER_SIZE, stack, stackSize);
+                    if (lz < last) stackSize = push(leadsTo, target, cell + CLUSTER_SIZE, stack, stackSize);
+                    if (ly > 0) stackSize = push(leadsTo, target, cell - CLUSTER_SIZE * CLUSTER_SIZE, stack, stackSize);
+                    if (ly < last) stackSize = push(leadsTo, target, cell + CLUSTER_SIZE * CLUSTER_SIZE, stack, stackSize);
+                }
+                double centerX = sumX / groupSize, centerY = sumY / groupSize, centerZ = sumZ / groupSize;
+                int best = group[0];
+                double bestDistance = INFINITY;
+                for (int i = 0; i < groupSize; i++) {
+                    int cell = group[i];
+                    double dx = (cell & last) - centerX, dy = (cell >>> (2 * CLUSTER_SHIFT)) - centerY, dz = ((cell >>> CLUSTER_SHIFT) & last) - centerZ;
+                    double d = dx * dx + dy * dy + dz * dz;
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        best = cell;
+                    }
+                }
+                if (resultCount == result.length) result = Arrays.copyOf(result, resultCount * 2);
+                result[resultCount++] = best;
+            }
+            return Arrays.copyOf(result, resultCount);
+        }
+
+        private static int push(int[] leadsTo, int target, int cell, int[] stack, int stackSize) {
+            if (leadsTo[cell] != target) return stackSize;
+            leadsTo[cell] = -1;
+            stack[stackSize] = cell;
+            return stackSize + 1;
+        }
+
+        /** @return the index of the edge lists leaving {@code pos}, computing them on first use. */
+        int edgesFrom(long pos) {
+            int source = sources.get(pos);
+            if (source >= 0) return source;
+            if (sourceCount == edgeTargets.length) {
+                edgeTargets = Arrays.copyOf(edgeTargets, sourceCount * 2);
+                edgeCosts = Arrays.copyOf(edgeCosts, sourceCount * 2);
+            }
+            source = sourceCount++;
+            sources.put(pos, source);
+            searchFrom(pos, source);
+            return source;
+        }
+
+        /** Dijkstra from {@code pos} that stays inside the cluster; every reached exit becomes an edge into the next cluster. */
+        private void searchFrom(long pos, int source) {
+            Arrays.fill(localG, INFINITY);
+            localOpen.clear();
+            int startX = BlockPos.unpackLongX(pos) - baseX, startY = BlockPos.unpackLongY(pos) - baseY, startZ = BlockPos.unpackLongZ(pos) - baseZ;
+            int start = localIndex(startX, startY, startZ);
+            localG[start] = 0;
+            localOpen.insertOrUpdate(start, 0);
+            while (!localOpen.isEmpty()) {
+                int cell = localOpen.poll();
+                int lx = cell & (CLUSTER_SIZE - 1), ly = cell >>> (2 * CLUSTER_SHIFT), lz = (cell >>> CLUSTER_SHIFT) & (CLUSTER_SIZE - 1);
+                for (int move = 0; move < MovementModel.MOVES; move++) {
+                    int nx = lx + MovementModel.MOVE_X[move], ny = ly + MovementModel.MOVE_Y[move], nz = lz + MovementModel.MOVE_Z[move];
+                    if (nx < 0 || ny < 0 || nz < 0 || nx >= CLUSTER_SIZE || ny >= CLUSTER_SIZE || nz >= CLUSTER_SIZE) continue;
+                    double cost = movement.cost(baseX + lx, baseY + ly, baseZ + lz, move);
+                    if (cost == MovementModel.IMPOSSIBLE) continue;
+                    int next = localIndex(nx, ny, nz);
+                    double g = localG[cell] + cost;
+                    if (g < localG[next]) {
+                        localG[next] = g;
+                        localOpen.insertOrUpdate(next, g);
+                    }
+                }
+            }
+
+            long[] targets = new long[exitCells.length];
+            double[] costs = new double[exitCells.length];
+            int count = 0;
+            for (int i = 0; i < exitCells.length; i++) {
+                long exit = exitCells[i];
+                double g = localG[localIndex(BlockPos.unpackLongX(exit) - baseX, BlockPos.unpackLongY(exit) - baseY, BlockPos.unpackLongZ(exit) - baseZ)];
+                if (g == INFINITY) continue;
+                int move = exitMoves[i];
+                targets[count] = BlockPos.asLong(BlockPos.unpackLongX(exit) + MovementModel.MOVE_X[move],
+                        BlockPos.unpackLongY(exit) + MovementModel.MOVE_Y[move], BlockPos.unpackLongZ(exit) + MovementModel.MOVE_Z[move]);
+                costs[count] = g + exitCosts[i];
+                count++;
+            }
+            edgeTargets[source] = Arrays.copyOf(targets, count);
+            edgeCosts[source] = Arrays.copyOf(costs, count);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package net.autominer;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Clears the area in square columns as wide as the player reaches sideways, the full height of each
+ * before moving on, visiting the columns in rows from the corner nearest the player. Each column is
+ * mined layer by layer from the top, so the miner ends at its bottom and has to get back up to the
+ * top of the next one. Pays off on deep, narrow areas where a layer is not much wider than a column.
+ */
+public class ColumnStrategy extends MiningStrategy {
+    private final int side;
+    private final int columnsX, columnsZ;
+    // Columns handed out so far, in visiting order; the order is fixed by the first call.
+    private int nextColumn;
+    private boolean reverseX, reverseZ;
+
+    public ColumnStrategy(MiningArea area) {
+        super(area);
+        this.side = 2 * StandRegion.MAX_HORIZONTAL + 1;
+        this.columnsX = (maxX - minX + side) / side;
+        this.columnsZ = (maxZ - minZ + side) / side;
+    }
+
+    @Override
+    @Nullable
+    public Batch next(BlockPos player) {
+        if (nextColumn >= columnsX * columnsZ) return null;
+        if (nextColumn == 0) {
+            reverseX = nearMaxX(player);
+            reverseZ = nearMaxZ(player);
+        }
+        int i = nextColumn / columnsZ, j = nextColumn % columnsZ;
+        int column = reverseX ? columnsX - 1 - i : i;
+        boolean rowReverseZ = (i % 2 == 0) ? reverseZ : !reverseZ;
+        int row = rowReverseZ ? columnsZ - 1 - j : j;
+        int fromX = minX + column * side, toX = Math.min(maxX, fromX + side - 1);
+        int fromZ = minZ + row * side, toZ = Math.min(maxZ, fromZ + side - 1);
+        int depth = toZ - fromZ + 1, layer = (toX - fromX + 1) * depth;
+        nextColumn++;
+        return new Batch(blocks((maxY - minY + 1) * layer, index -> {
+            int inLayer = index % layer;
+            return new BlockPos(fromX + inLayer / depth, maxY - index / layer, fromZ + inLayer % depth);
+        }), minY, maxY);
+    }
+
+    @Override
+    protected MiningStrategy fresh() {
+        return new ColumnStrategy(area);
+    }
+
+    @Override
+    public String getName() {
+        return "column";
+    }
+}
@@ -0,0 +1,140 @@
+package net.autominer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Walking distance from one origin cell to every cell of a box, built with a single Dijkstra over
+ * the {@link MovementModel}. Covers the layer band being mined, so after one build the route to any
+ * stand position is read back through the parent links in O(path length) instead of a new search,
+ * and targets can be compared by how far the miner actually has to walk.
+ * <p>
+ * Immutable once built, so it can be built on the planner thread and read on the client thread.
+ */
+public class DistanceField {
+    // 2M cells: 16 MB of distances and parents. Larger boxes are cut down around the origin.
+    private static final int MAX_CELLS = 1 << 21;
+    private static final float UNREACHED = Float.POSITIVE_INFINITY;
+    // Cells settled between two looks at the cancel flag.
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    private final BlockPos origin;
+    private final int minX, minY, minZ, sizeX, sizeY, sizeZ;
+    private final float[] distance;
+    private final int[] parent;
+
+    private DistanceField(BlockPos origin, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+        this.origin = origin;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.distance = new float[sizeX * sizeY * sizeZ];
+        this.parent = new int[sizeX * sizeY * sizeZ];
+        Arrays.fill(distance, UNREACHED);
+    }
+
+    /**
+     * Runs Dijkstra from {@code origin} over every cell between {@code min} and {@code max} (inclusive).
+     * @param cancelled polled while the search runs, so a field nobody waits for any more stops early.
+     * @return the field, or null if the origin lies outside the box or the build was cancelled.
+     */
+    public static DistanceField build(MovementModel movement, BlockPos origin, BlockPos min, BlockPos max, BooleanSupplier cancelled) {
+        int sizeX = max.getX() - min.getX() + 1, sizeY = max.getY() - min.getY() + 1, sizeZ = max.getZ() - min.getZ() + 1;
+        int minX = min.getX(), minZ = min.getZ();
+        // Too large: keep the full height and shrink the horizontal extent around the origin.
+        long columns = MAX_CELLS / Math.max(sizeY, 1);
+        if ((long) sizeX * sizeZ > columns) {
+            int side = (int) Math.sqrt(columns);
+            if (sizeX > side) { minX = Math.max(minX, Math.min(origin.getX() - side / 2, max.getX() - side + 1)); sizeX = side; }
+            if (sizeZ > side) { minZ = Math.max(minZ, Math.min(origin.getZ() - side / 2, max.getZ() - side + 1)); sizeZ = side; }
+        }
+        DistanceField field = new DistanceField(origin.toImmutable(), minX, min.getY(), minZ, sizeX, sizeY, sizeZ);
+        int start = field.index(origin.getX(), origin.getY(), origin.getZ());
+        if (start < 0) return null;
+
+        IndexedMinHeap open = new IndexedMinHeap(1024);
+        field.distance[start] = 0;
+        field.parent[start] = -1;
+        open.insertOrUpdate(start, 0);
+        int settled = 0;
+        while (!open.isEmpty()) {
+            if (++settled % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) return null;
+            int cell = open.poll();
+            int x = field.minX + cell / (sizeY * sizeZ);
+            int y = field.minY + cell % sizeY;
+            int z = field.minZ + (cell / sizeY) % sizeZ;
+            for (int move = 0; move < MovementModel.MOVES; move++) {
+                int next = field.index(x + MovementModel.MOVE_X[move], y + MovementModel.MOVE_Y[move], z + MovementModel.MOVE_Z[move]);
+                if (next < 0) continue;
+                double cost = movement.cost(x, y, z, move);
+                if (cost == MovementModel.IMPOSSIBLE) continue;
+                float d = (float) (field.distance[cell] + cost);
+                if (d < field.distance[next]) {
+                    field.distance[next] = d;
+                    field.parent[next] = cell;
+                    open.insertOrUpdate(next, d);
+                }
+            }
+        }
+        return field;
+    }
+
+    public BlockPos getOrigin() {
+        return origin;
+    }
+
+    /** @return the walking cost from the origin, or infinity if the cell is unreachable or outside the field. */
+    public double distanceTo(int x, int y, int z) {
+        int index = index(x, y, z);
+        return index < 0 ? Double.POSITIVE_INFINITY : distance[index];
+    }
+
+    /** @return the reachable cell of {@code region} closest to the origin, or null if none is reachable. */
+    public BlockPos closestCell(StandRegion region) {
+        long best = 0;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (long cell : region.getCells()) {
+            double d = distanceTo(BlockPos.unpackLongX(cell), BlockPos.unpackLongY(cell), BlockPos.unpackLongZ(cell));
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = cell;
+            }
+        }
+        return bestDistance == Double.POSITIVE_INFINITY ? null : BlockPos.fromLong(best);
+    }
+
+    /** @return the walking cost to the closest reachable cell of {@code region}. */
+    public double distanceTo(StandRegion region) {
+        BlockPos cell = closestCell(region);
+        return cell == null ? Double.POSITIVE_INFINITY : distanceTo(cell.getX(), cell.getY(), cell.getZ());
+    }
+
+    /**
+     * Reads the route from the origin to {@code target} out of the parent links.
+     * @return the path without the origin, ending at {@code target}, or null if it is unreachable.
+     */
+    public List<BlockPos> pathTo(BlockPos target) {
+        int cell = index(target.getX(), target.getY(), target.getZ());
+        if (cell < 0 || distance[cell] == UNREACHED) return null;
+        List<BlockPos> path = new ArrayList<>();
+        for (; parent[cell] >= 0; cell = parent[cell]) {
+            path.add(new BlockPos(minX + cell / (sizeY * sizeZ), minY + cell % sizeY, minZ + (cell / sizeY) % sizeZ));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private int index(int x, int y, int z) {
+        int dx = x - minX, dy = y - minY, dz = z - minZ;
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= sizeX || dy >= sizeY || dz >= sizeZ) return -1;
+        return (dx * sizeZ + dz) * sizeY + dy;
+    }
+}
@@ -0,0 +1,298 @@
+package net.autominer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * D* Lite planner that keeps its search tree between ticks. It searches backwards from the
+ * stand cells of the target to the player, so when blocks change on or near the path only the
+ * cells whose moves read those blocks are updated and the rest of the tree is reused.
+ * <p>
+ * Uses the same {@link MovementModel} as the A* {@link Pathfinder}. The first search may run on
+ * the planner thread against a snapshot; repairs run on the client thread against the live world.
+ */
+public class IncrementalPlanner {
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final AutoMinerConfig config;
+    private MovementModel movement;
+    private BlockPos target;
+    private boolean findStandPos;
+    private StandRegion goals;
+    private volatile boolean cancelled;
+
+    private final LongIndexMap nodeIndex = new LongIndexMap(INITIAL_CAPACITY);
+    private final IndexedMinHeap open = new IndexedMinHeap(INITIAL_CAPACITY);
+    private long[] nodePos = new long[INITIAL_CAPACITY];
+    private double[] nodeG = new double[INITIAL_CAPACITY];
+    private double[] nodeRhs = new double[INITIAL_CAPACITY];
+    private int nodeCount;
+
+    private int startX, startY, startZ;
+    private double km;
+    private int nodeUpdates;
+
+    // Block updates reported by the client thread, applied by the next repair.
+    private final Queue<BlockPos> changedBlocks = new ConcurrentLinkedQueue<>();
+
+    public IncrementalPlanner(AutoMinerConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Prepares a search from {@code start} to a stand position for {@code target} (or to {@code target}
+     * itself if {@code findStandPos} is false). The stand region is computed by the first {@link #compute(int)}.
+     * Block updates recorded before this call are kept: a planner is created on the client thread right
+     * after its snapshot is taken, so they all came later than the snapshot and the first repair applies them.
+     */
+    public void start(MovementModel movement, BlockPos start, BlockPos target, boolean findStandPos) {
+        this.movement = movement;
+        this.target = target;
+        this.findStandPos = findStandPos;
+        this.goals = null;
+        this.nodeIndex.clear();
+        this.open.clear();
+        this.nodeCount = 0;
+        this.km = 0;
+        this.nodeUpdates = 0;
+        this.startX = start.getX();
+        this.startY = start.getY();
+        this.startZ = start.getZ();
+    }
+
+    /** Switches the planner to another view of the world, e.g. the live world after a background search. */
+    public void setPassability(PassabilityCache passability) {
+        movement.setPassability(passability);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /** Number of vertex updates since the last call to {@link #applyChanges()} or {@link #start}. */
+    public int getNodeUpdates() {
+        return nodeUpdates;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /** Records a block update. Safe to call from the client thread while a background search runs. */
+    public void blockChanged(BlockPos pos) {
+        changedBlocks.add(pos);
+    }
+
+    public boolean hasPendingChanges() {
+        return !changedBlocks.isEmpty();
+    }
+
+    /** Moves the start of the search to where the player is now. */
+    public void moveStart(BlockPos start) {
+        km += distance(startX, startY, startZ, start.getX(), start.getY(), start.getZ()) * movement.minCostPerBlock();
+        startX = start.getX();
+        startY = start.getY();
+        startZ = start.getZ();
+    }
+
+    /**
+     * Re-evaluates every explored cell whose moves can read one of the changed blocks.
+     * Cells the search never touched are skipped, they will be evaluated with fresh costs when reached.
+     */
+    public void applyChanges() {
+        nodeUpdates = 0;
+        BlockPos changed;
+        while ((changed = changedBlocks.poll()) != null) {
+            for (int dy = -MovementModel.INFLUENCE_BELOW; dy <= MovementModel.INFLUENCE_ABOVE; dy++) {
+                for (int dx = -MovementModel.INFLUENCE_HORIZONTAL; dx <= MovementModel.INFLUENCE_HORIZONTAL; dx++) {
+                    for (int dz = -MovementModel.INFLUENCE_HORIZONTAL; dz <= MovementModel.INFLUENCE_HORIZONTAL; dz++) {
+                        int node = nodeIndex.get(BlockPos.asLong(changed.getX() + dx, changed.getY() + dy, changed.getZ() + dz));
+                        if (node >= 0) updateVertex(node);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the search until it finishes. Used by the background planner.
+     * @return the result, or null if the search was cancelled.
+     */
+    public PathfinderResult runToCompletion() {
+        while (!cancelled) {
+            PathfinderResult result = compute(config.nodesPerTick);
+            if (result != null) return result;
+        }
+        return null;
+    }
+
+    /**
+     * Expands up to {@code nodeBudget} nodes towards a consistent path for the current start.
+     * @return the result, or null if the search needs more calls.
+     */
+    public PathfinderResult compute(int nodeBudget) {
+        if (goals == null) {
+            goals = findStandPos
+                    ? StandRegion.compute(movement.getPassability(), target)
+                    : StandRegion.single(target);
+            for (long cell : goals.getCells()) {
+                int node = nodeFor(cell);
+                nodeRhs[node] = 0;
+                queue(node);
+            }
+        }
+
+        int expanded = 0;
+        int startNode = nodeIndex.get(BlockPos.asLong(startX, startY, startZ));
+        while (!open.isEmpty() && needsExpansion(startNode)) {
+            if (expanded++ >= nodeBudget) return null;
+            if (nodeCount >= config.maxSearchNodes) {
+                return new PathfinderResult(PathFindResultType.SEARCH_LIMIT_REACHED, null, null);
+            }
+
+            int u = open.peek();
+            double oldKey = open.peekKey(), oldTie = open.peekTie();
+            double newTie = Math.min(nodeG[u], nodeRhs[u]);
+            double newKey = newTie + heuristic(u) + km;
+            if (oldKey < newKey || (oldKey == newKey && oldTie < newTie)) {
+                open.insertOrUpdate(u, newKey, newTie);
+            } else if (nodeG[u] > nodeRhs[u]) {
+                nodeG[u] = nodeRhs[u];
+                open.remove(u);
+                updatePredecessors(u);
+            } else {
+                nodeG[u] = INFINITY;
+                updateVertex(u);
+                updatePredecessors(u);
+            }
+            startNode = nodeIndex.get(BlockPos.asLong(startX, startY, startZ));
+        }
+
+        if (startNode < 0 || nodeG[startNode] == INFINITY) {
+            return new PathfinderResult(PathFindResultType.NO_PATH, null, null);
+        }
+        List<BlockPos> path = extractPath(startNode);
+        if (path == null) {
+            return new PathfinderResult(PathFindResultType.NO_PATH, null, null);
+        }
+        BlockPos standPos = path.isEmpty() ? new BlockPos(startX, startY, startZ) : path.get(path.size() - 1);
+        return new PathfinderResult(PathFindResultType.SUCCESS, path, standPos);
+    }
+
+    private boolean needsExpansion(int startNode) {
+        if (startNode < 0) return true;
+        double startTie = Math.min(nodeG[startNode], nodeRhs[startNode]);
+        double startKey = startTie + km;
+        double topKey = open.peekKey();
+        return topKey < startKey || (topKey == startKey && open.peekTie() < startTie) || nodeRhs[startNode] > nodeG[startNode];
+    }
+
+    /** Follows the cheapest successors from the start to a goal cell. */
+    private List<BlockPos> extractPath(int startNode) {
+        List<BlockPos> path = new ArrayList<>();
+        int current = startNode;
+        while (!goals.contains(nodePos[current])) {
+            long pos = nodePos[current];
+            int x = BlockPos.unpackLongX(pos), y = BlockPos.unpackLongY(pos), z = BlockPos.unpackLongZ(pos);
+            int best = -1;
+            double bestCost = INFINITY;
+            for (int move = 0; move < MovementModel.MOVES; move++) {
+                double cost = movement.cost(x, y, z, move);
+                if (cost == MovementModel.IMPOSSIBLE) continue;
+                int next = nodeIndex.get(BlockPos.asLong(x + MovementModel.MOVE_X[move], y + MovementModel.MOVE_Y[move], z + MovementModel.MOVE_Z[move]));
+                if (next < 0) continue;
+                double total = cost + nodeG[next];
+                if (total < bestCost) {
+                    bestCost = total;
+                    best = next;
+                }
+            }
+            if (best < 0 || path.size() > nodeCount) return null;
+            current = best;
+            path.add(BlockPos.fromLong(nodePos[current]));
+        }
+        return path;
+    }
+
+    private void updatePredecessors(int u) {
+        long pos = nodePos[u];
+        int x = BlockPos.unpackLongX(pos), y = BlockPos.unpackLongY(pos), z = BlockPos.unpackLongZ(pos);
+        for (int move = 0; move < MovementModel.MOVES; move++) {
+            int px = x - MovementModel.MOVE_X[move], py = y - MovementModel.MOVE_Y[move], pz = z - MovementModel.MOVE_Z[move];
+            double cost = movement.cost(px, py, pz, move);
+            if (cost == MovementModel.IMPOSSIBLE) continue;
+            int p = nodeFor(BlockPos.asLong(px, py, pz));
+            if (goals.contains(nodePos[p])) continue;
+            double viaU = cost + nodeG[u];
+            if (viaU < nodeRhs[p]) {
+                nodeRhs[p] = viaU;
+                queue(p);
+                nodeUpdates++;
+            } else if (nodeRhs[p] != INFINITY && nodeG[u] == INFINITY) {
+                // u lost its value, p may have depended on it.
+                updateVertex(p);
+            }
+        }
+    }
+
+    /** Recomputes rhs from all successors and fixes the node's place in the open list. */
+    private void updateVertex(int u) {
+        nodeUpdates++;
+        long pos = nodePos[u];
+        if (!goals.contains(pos)) {
+            int x = BlockPos.unpackLongX(pos), y = BlockPos.unpackLongY(pos), z = BlockPos.unpackLongZ(pos);
+            double best = INFINITY;
+            for (int move = 0; move < MovementModel.MOVES; move++) {
+                double cost = movement.cost(x, y, z, move);
+                if (cost == MovementModel.IMPOSSIBLE) continue;
+                int next = nodeIndex.get(BlockPos.asLong(x + MovementModel.MOVE_X[move], y + MovementModel.MOVE_Y[move], z + MovementModel.MOVE_Z[move]));
+                if (next < 0) continue;
+                best = Math.min(best, cost + nodeG[next]);
+            }
+            nodeRhs[u] = best;
+        }
+        queue(u);
+    }
+
+    private void queue(int u) {
+        if (nodeG[u] != nodeRhs[u]) {
+            double tie = Math.min(nodeG[u], nodeRhs[u]);
+            open.insertOrUpdate(u, tie + heuristic(u) + km, tie);
+        } else {
+            open.remove(u);
+        }
+    }
+
+    private double heuristic(int node) {
+        long pos = nodePos[node];
+        return distance(startX, startY, startZ, BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos)) * movement.minCostPerBlock();
+    }
+
+    private static double distance(int x1, int y1, int z1, int x2, int y2, int z2) {
+        double dx = x1 - x2, dy = y1 - y2, dz = z1 - z2;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private int nodeFor(long pos) {
+        int node = nodeIndex.get(pos);
+        if (node >= 0) return node;
+        if (nodeCount == nodePos.length) {
+            int capacity = nodeCount * 2;
+            nodePos = Arrays.copyOf(nodePos, capacity);
+            nodeG = Arrays.copyOf(nodeG, capacity);
+            nodeRhs = Arrays.copyOf(nodeRhs, capacity);
+        }
+        node = nodeCount++;
+        nodePos[node] = pos;
+        nodeG[node] = INFINITY;
+        nodeRhs[node] = INFINITY;
+        nodeIndex.put(pos, node);
+        return node;
+    }
+}
@@ -0,0 +1,171 @@
+package net.autominer;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over int node ids with a position index, so a node's key can be lowered
+ * in O(log n) and membership is O(1). Used as the open set of the pathfinder.
+ * Keys are compared by the primary key first and the secondary key on ties.
+ */
+public class IndexedMinHeap {
+    private int[] heap;       // heap slot -> node id
+    private double[] keys;    // heap slot -> key
+    private double[] ties;    // heap slot -> secondary key
+    private int[] slotOf;     // node id -> heap slot, -1 if not queued
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        ties = new double[capacity];
+        slotOf = new int[capacity];
+        Arrays.fill(slotOf, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int node) {
+        return node < slotOf.length && slotOf[node] >= 0;
+    }
+
+    public double peekKey() {
+        return keys[0];
+    }
+
+    public double peekTie() {
+        return ties[0];
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Queues {@code node} with {@code key}, or moves it to the new key if it is already queued.
+     */
+    public void insertOrUpdate(int node, double key) {
+        insertOrUpdate(node, key, 0);
+    }
+
+    public void insertOrUpdate(int node, double key, double tie) {
+        ensureNodeCapacity(node + 1);
+        int slot = slotOf[node];
+        if (slot < 0) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+                ties = Arrays.copyOf(ties, size * 2);
+            }
+            slot = size++;
+            heap[slot] = node;
+            keys[slot] = key;
+            ties[slot] = tie;
+            slotOf[node] = slot;
+            siftUp(slot);
+        } else {
+            boolean lower = less(key, tie, keys[slot], ties[slot]);
+            keys[slot] = key;
+            ties[slot] = tie;
+            if (lower) siftUp(slot);
+            else siftDown(slot);
+        }
+    }
+
+    /** Removes {@code node} if it is queued. */
+    public void remove(int node) {
+        if (!contains(node)) return;
+        int slot = slotOf[node];
+        slotOf[node] = -1;
+        size--;
+        if (slot == size) return;
+        heap[slot] = heap[size];
+        keys[slot] = keys[size];
+        ties[slot] = ties[size];
+        int moved = heap[slot];
+        slotOf[moved] = slot;
+        siftDown(slot);
+        siftUp(slotOf[moved]);
+    }
+
+    /** Removes and returns the node with the smallest key. */
+    public int poll() {
+        int top = heap[0];
+        slotOf[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            keys[0] = keys[size];
+            ties[0] = ties[size];
+            slotOf[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            slotOf[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (capacity <= slotOf.length) return;
+        int oldLength = slotOf.length;
+        slotOf = Arrays.copyOf(slotOf, Math.max(capacity, oldLength * 2));
+        Arrays.fill(slotOf, oldLength, slotOf.length, -1);
+    }
+
+    private static boolean less(double key, double tie, double otherKey, double otherTie) {
+        return key < otherKey || (key == otherKey && tie < otherTie);
+    }
+
+    private void siftUp(int slot) {
+        int node = heap[slot];
+        double key = keys[slot];
+        double tie = ties[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!less(key, tie, keys[parent], ties[parent])) break;
+            move(parent, slot);
+            slot = parent;
+        }
+        place(node, key, tie, slot);
+    }
+
+    private void siftDown(int slot) {
+        int node = heap[slot];
+        double key = keys[slot];
+        double tie = ties[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && less(keys[right], ties[right], keys[child], ties[child])) child = right;
+            if (!less(keys[child], ties[child], key, tie)) break;
+            move(child, slot);
+            slot = child;
+        }
+        place(node, key, tie, slot);
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        ties[to] = ties[from];
+        slotOf[heap[to]] = to;
+    }
+
+    private void place(int node, double key, double tie, int slot) {
+        heap[slot] = node;
+        keys[slot] = key;
+        ties[slot] = tie;
+        slotOf[node] = slot;
+    }
+}
@@ -0,0 +1,109 @@
+package net.autominer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * IDA* over the {@link MovementModel}: depth-first searches with a growing f-cost bound. Keeps only
+ * the current path on an explicit stack, so memory stays bounded by {@link #MAX_DEPTH} no matter how
+ * many nodes are expanded. Used by the {@link Pathfinder} when its node table hits the limit.
+ * The search is resumable, so it can be time-sliced like the A* it falls back from.
+ */
+public class IterativeDeepeningSearch {
+    static final int MAX_DEPTH = 256;
+
+    enum Status { RUNNING, FOUND, EXHAUSTED }
+
+    private final MovementModel movement;
+    private final StandRegion region;
+
+    private final long[] stackPos = new long[MAX_DEPTH + 1];
+    private final double[] stackG = new double[MAX_DEPTH + 1];
+    private final int[] stackMove = new int[MAX_DEPTH + 1];
+    private int depth;
+    private double bound;
+    private double nextBound;
+    private int expansions;
+
+    public IterativeDeepeningSearch(MovementModel movement, StandRegion region, long start) {
+        this.movement = movement;
+        this.region = region;
+        this.stackPos[0] = start;
+        this.bound = heuristic(start);
+        this.nextBound = Double.POSITIVE_INFINITY;
+    }
+
+    public int getExpansions() {
+        return expansions;
+    }
+
+    /** Expands up to {@code nodeBudget} nodes. */
+    public Status continueSearch(int nodeBudget) {
+        int expandedThisCall = 0;
+        while (expandedThisCall < nodeBudget) {
+            if (depth < 0) {
+                // Iteration finished without reaching the region: retry with the smallest f that was cut off.
+                if (nextBound == Double.POSITIVE_INFINITY) return Status.EXHAUSTED;
+                bound = nextBound;
+                nextBound = Double.POSITIVE_INFINITY;
+                depth = 0;
+                stackMove[0] = 0;
+            }
+
+            long pos = stackPos[depth];
+            if (stackMove[depth] == 0) {
+                expansions++;
+                expandedThisCall++;
+                double f = stackG[depth] + heuristic(pos);
+                if (f > bound) {
+                    nextBound = Math.min(nextBound, f);
+                    depth--;
+                    continue;
+                }
+                if (region.contains(pos)) return Status.FOUND;
+                if (depth == MAX_DEPTH) {
+                    depth--;
+                    continue;
+                }
+            }
+            if (stackMove[depth] >= MovementModel.MOVES) {
+                depth--;
+                continue;
+            }
+
+            int move = stackMove[depth]++;
+            int x = BlockPos.unpackLongX(pos), y = BlockPos.unpackLongY(pos), z = BlockPos.unpackLongZ(pos);
+            double cost = movement.cost(x, y, z, move);
+            if (cost == MovementModel.IMPOSSIBLE) continue;
+            long next = BlockPos.asLong(x + MovementModel.MOVE_X[move], y + MovementModel.MOVE_Y[move], z + MovementModel.MOVE_Z[move]);
+            if (isOnStack(next)) continue;
+            depth++;
+            stackPos[depth] = next;
+            stackG[depth] = stackG[depth - 1] + cost;
+            stackMove[depth] = 0;
+        }
+        return Status.RUNNING;
+    }
+
+    /** The path found, without the start cell. Only valid after {@link Status#FOUND}. */
+    public List<BlockPos> getPath() {
+        List<BlockPos> path = new ArrayList<>(depth);
+        for (int i = 1; i <= depth; i++) {
+            path.add(BlockPos.fromLong(stackPos[i]));
+        }
+        return path;
+    }
+
+    private boolean isOnStack(long pos) {
+        for (int i = depth; i >= 0; i--) {
+            if (stackPos[i] == pos) return true;
+        }
+        return false;
+    }
+
+    private double heuristic(long pos) {
+        return region.distanceTo(BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos)) * movement.minCostPerBlock();
+    }
+}
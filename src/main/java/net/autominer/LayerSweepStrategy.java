@@ -0,0 +1,50 @@
+package net.autominer;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Clears the area from the top in passes of {@code depth} layers, each in rows of X from the corner
+ * nearest the player and every column of the pass top down. A player reaches the blocks above and
+ * below its eye from the same cell, so a deeper pass mines more per cell it stands in.
+ */
+public class LayerSweepStrategy extends MiningStrategy {
+    private final int depth;
+    private int nextY;
+
+    public LayerSweepStrategy(MiningArea area, int depth) {
+        super(area);
+        this.depth = depth;
+        this.nextY = maxY;
+    }
+
+    @Override
+    @Nullable
+    public Batch next(BlockPos player) {
+        if (nextY < minY) return null;
+        int bottom = Math.max(minY, nextY - depth + 1);
+        boolean reverseX = nearMaxX(player);
+        boolean reverseZ = nearMaxZ(player);
+        int top = nextY, height = top - bottom + 1, rowLength = (maxZ - minZ + 1) * height;
+        Batch batch = new Batch(blocks((maxX - minX + 1) * rowLength, index -> {
+            int i = index / rowLength, j = index % rowLength / height;
+            int x = reverseX ? maxX - i : minX + i;
+            boolean rowReverseZ = (i % 2 == 0) ? reverseZ : !reverseZ;
+            int z = rowReverseZ ? maxZ - j : minZ + j;
+            return new BlockPos(x, top - index % height, z);
+        }), bottom, top);
+        nextY = bottom - 1;
+        return batch;
+    }
+
+    @Override
+    protected MiningStrategy fresh() {
+        return new LayerSweepStrategy(area, depth);
+    }
+
+    @Override
+    public String getName() {
+        return depth == 1 ? "layer" : depth + "-layer sweep";
+    }
+}
@@ -0,0 +1,151 @@
+package net.autominer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Remembers the answers of {@link VisibilityField#findAimPoint} per stand cell and target, so the
+ * same target checked again from the same cell (by the target choice, the stand planning and the
+ * reposition scan) costs one map lookup. Only the fixed eye of a stand cell (see
+ * {@link StandRegion#eyeOf}) is cached, so an answer is exact for every lookup that hits it; the
+ * player's own eye moves within its cell and is traced directly. Bounded to {@link #CAPACITY}
+ * entries, least recently used go first. Each entry lists the chunk sections its rays can cross,
+ * the box spanned by the eye and the target with its neighbors; a block update in one of them drops
+ * the entry.
+ * <p>
+ * Targets whose faces towards the eye are all covered by full cubes are rejected without tracing
+ * and are not cached, so blocks inside solid rock do not push out useful entries. Only used on the
+ * client thread.
+ */
+public class LineOfSightCache {
+    static final int CAPACITY = 4096;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() <= CAPACITY) return false;
+            unlink(eldest.getKey(), eldest.getValue());
+            evictions++;
+            return true;
+        }
+    };
+    private final Map<Long, Set<Key>> keysBySection = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    private record Key(long standCell, long target) {
+    }
+
+    private static class Entry {
+        final Vec3d aimPoint;
+        final long[] sections;
+
+        Entry(Vec3d aimPoint, long[] sections) {
+            this.aimPoint = aimPoint;
+            this.sections = sections;
+        }
+    }
+
+    /** @return where to aim from the eye of the stand cell {@code x, y, z} to hit {@code target}, or null if no face is visible. */
+    @Nullable
+    public Vec3d findAimPoint(PassabilityCache passability, int x, int y, int z, BlockPos target) {
+        Vec3d eye = StandRegion.eyeOf(x, y, z);
+        if (!VisibilityField.hasOpenFace(passability, eye, target)) return null;
+        Key key = new Key(BlockPos.asLong(x, y, z), target.asLong());
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits++;
+            return entry.aimPoint;
+        }
+        misses++;
+        Vec3d aimPoint = VisibilityField.findAimPoint(passability, eye, target);
+        long[] sections = sectionsBetween(eye, target);
+        entries.put(key, new Entry(aimPoint, sections));
+        for (long section : sections) {
+            keysBySection.computeIfAbsent(section, s -> new HashSet<>()).add(key);
+        }
+        return aimPoint;
+    }
+
+    public boolean canSee(PassabilityCache passability, int x, int y, int z, BlockPos target) {
+        return findAimPoint(passability, x, y, z, target) != null;
+    }
+
+    /** Drops every entry whose rays can cross the section containing {@code pos}. */
+    public void onBlockUpdate(BlockPos pos) {
+        Set<Key> keys = keysBySection.remove(BlockPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+        if (keys == null) return;
+        for (Key key : keys) {
+            Entry entry = entries.remove(key);
+            if (entry == null) continue;
+            unlink(key, entry);
+            invalidations++;
+        }
+    }
+
+    /** Drops every entry and resets the counters. */
+    public void clear() {
+        entries.clear();
+        keysBySection.clear();
+        hits = misses = evictions = invalidations = 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /** One line with the counters, for the mining log. */
+    public String stats() {
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d evicted, %d invalidated, %d/%d entries",
+                hits, misses, getHitRate() * 100, evictions, invalidations, entries.size(), CAPACITY);
+    }
+
+    private void unlink(Key key, Entry entry) {
+        for (long section : entry.sections) {
+            Set<Key> keys = keysBySection.get(section);
+            if (keys == null) continue;
+            keys.remove(key);
+            if (keys.isEmpty()) keysBySection.remove(section);
+        }
+    }
+
+    /** Sections overlapping the box around the eye and the target with its neighbors, which holds every ray between them. */
+    private static long[] sectionsBetween(Vec3d eye, BlockPos target) {
+        int minX = Math.min((int) Math.floor(eye.x), target.getX() - 1) >> 4, maxX = Math.max((int) Math.floor(eye.x), target.getX() + 1) >> 4;
+        int minY = Math.min((int) Math.floor(eye.y), target.getY() - 1) >> 4, maxY = Math.max((int) Math.floor(eye.y), target.getY() + 1) >> 4;
+        int minZ = Math.min((int) Math.floor(eye.z), target.getZ() - 1) >> 4, maxZ = Math.max((int) Math.floor(eye.z), target.getZ() + 1) >> 4;
+        long[] sections = new long[(maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1)];
+        int count = 0;
+        for (int sx = minX; sx <= maxX; sx++) {
+            for (int sy = minY; sy <= maxY; sy++) {
+                for (int sz = minZ; sz <= maxZ; sz++) {
+                    sections[count++] = BlockPos.asLong(sx, sy, sz);
+                }
+            }
+        }
+        return sections;
+    }
+}
@@ -0,0 +1,85 @@
+package net.autominer;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from packed block positions ({@link net.minecraft.util.math.BlockPos#asLong()})
+ * to non-negative int indices. No boxing, no per-entry objects, and {@link #clear()} keeps the table for reuse.
+ */
+public class LongIndexMap {
+    // BlockPos.asLong never produces this value for coordinates inside the world border.
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongIndexMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeAt = capacity / 2;
+        size = 0;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /** @return the index stored for {@code key}, or -1 if absent. */
+    public int get(long key) {
+        int slot = mix(key) & mask;
+        while (true) {
+            long k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == EMPTY) return -1;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public void put(long key, int value) {
+        int slot = mix(key) & mask;
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                values[slot] = value;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) grow();
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+        }
+    }
+}
@@ -59,9 +59,13 @@ public class MiningArea {
     }
 
     public boolean isWithinArea(BlockPos pos) {
-        return pos.getX() >= startPos.getX() && pos.getX() <= endPos.getX() &&
-               pos.getY() >= startPos.getY() && pos.getY() <= endPos.getY() &&
-               pos.getZ() >= startPos.getZ() && pos.getZ() <= endPos.getZ();
+        return isWithinArea(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    public boolean isWithinArea(int x, int y, int z) {
+        return x >= startPos.getX() && x <= endPos.getX() &&
+               y >= startPos.getY() && y <= endPos.getY() &&
+               z >= startPos.getZ() && z <= endPos.getZ();
     }
 
     public boolean isActive() {
@@ -2,51 +2,51 @@
 package net.autominer;
 
 // Notwendige Importe
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.PriorityQueue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.FluidBlock;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.enchantment.Enchantment;
-import net.minecraft.enchantment.EnchantmentHelper;
-import net.minecraft.enchantment.Enchantments;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.BlockItem;
 import net.minecraft.item.ItemStack;
-import net.minecraft.registry.Registry;
-import net.minecraft.registry.RegistryKeys;
 import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.registry.tag.FluidTags;
 import net.minecraft.text.Text;
+import net.minecraft.util.Hand;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.hit.BlockHitResult;
-import net.minecraft.util.hit.HitResult;
-import net.minecraft.world.RaycastContext;
 import java.lang.reflect.Field;
 import net.minecraft.util.math.Vec3d;
-import net.minecraft.world.World;
 
 public class MiningLogic {
     private final MinecraftClient client;
     private final Random random = new Random();
     private MiningArea miningArea;
     private final AutoMinerConfig config;
-    private int currentMiningY;
+    private MiningStrategy miningStrategy;
+    // Layers of the batch being mined, for the connectivity and distance field bands.
+    private int batchMinY, batchMaxY;
 
     private enum State {
         IDLE,
@@ -60,37 +60,119 @@ public class MiningLogic {
     }
     private State currentState = State.IDLE;
 
-    private enum PathFindResultType {
-        SUCCESS,
-        NO_PATH,
-        SEARCH_LIMIT_REACHED
-    }
-
-    private static class PathfinderResult {
-        final PathFindResultType type;
-        final List<BlockPos> path;
-        final BlockPos standPos;
-
-        PathfinderResult(PathFindResultType type, List<BlockPos> path, BlockPos standPos) {
-            this.type = type;
-            this.path = path;
-            this.standPos = standPos;
-        }
-    }
-
     private final Pathfinder pathfinder;
+    // Background planning: the search runs on the planner thread against a snapshot of the area.
+    private final ExecutorService plannerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AutoMiner-Planner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Node storage shared by the searches on the planner thread, which run one at a time.
+    private final SearchArena plannerArena = new SearchArena();
+    private Future<PathfinderResult> pendingSearch;
+    private Pathfinder activeSearch;
+    // The search that produced the last result and when it started, for the negative cache.
+    private Pathfinder lastSearch;
+    // ARA*: the search whose path is being walked and refined, and its start cell.
+    private Pathfinder refiningSearch;
+    private Future<?> pendingRefinement;
+    private BlockPos searchStart;
+    private long searchStamp;
+    // Set while the current path comes from the D* Lite planner (see AutoMinerConfig#incrementalReplanning).
+    private IncrementalPlanner incrementalPlanner;
+    // Set while a repair ran out of node budget; it goes on next tick even with no new block updates.
+    private boolean repairInProgress;
+    // Shared by the connectivity updates and path cache lookups of one tick.
+    private MovementModel liveMovement;
+    private long liveMovementTick;
+    private BlockSnapshot snapshot;
+    // What the player can hit from where the eye is now; recomputed when the eye moves or a block in it changes.
+    private VisibilityField visibility;
+    // Line of sight answers per stand cell and target, shared by the stand checks on the client thread.
+    private final LineOfSightCache sightCache = new LineOfSightCache();
+    private PassabilityCache passability;
+    private long searchStartedAt;
+    private static final int SNAPSHOT_MARGIN = 16;
+    // Learned rewards over the area, built when mining starts (see RewardOverlay).
+    private RewardOverlay rewardOverlay;
+    // Hierarchical pathfinding: targets at least this far away are approached one cluster at a time.
+    private ClusterGraph clusterGraph;
+    private boolean routeHop;
+    // Partial paths followed towards the current target; bounded so an unreachable target is still skipped.
+    private int partialPaths;
+    private static final int MAX_PARTIAL_PATHS = 8;
+    private static final int HIERARCHY_MIN_DISTANCE = 2 * ClusterGraph.CLUSTER_SIZE;
+    // Flow-field planning: walking distances from the player's cell over the layer band being mined.
+    private DistanceField distanceField;
+    private Future<DistanceField> pendingField;
+    private BlockPos pendingFieldOrigin;
+    // Set to stop the pending build once a newer one replaces it; cancelling the future cannot stop a running build.
+    private AtomicBoolean pendingFieldCancelled = new AtomicBoolean();
+    private static final int FIELD_MARGIN = 4;
+    private static final int FIELD_BELOW = 6;
+    private static final int FIELD_ABOVE = 3;
+    // Connectivity of the snapshot box, see AreaConnectivity; its ISOLATED label is only a hint.
+    private AreaConnectivity connectivity;
+    private Future<AreaConnectivity> pendingConnectivity;
+    private final List<BlockPos> connectivityUpdates = new ArrayList<>();
     private List<BlockPos> currentPath;
     private int pathIndex;
     private BlockPos targetBlock;
     private BlockPos standPos;
     private BlockPos currentlyBreaking = null;
-    private List<BlockPos> blocksToMine;
+    private TargetIndex blocksToMine;
+    // The work list in the mining strategy's order; blocks that left blocksToMine are dropped on the way.
+    private final ArrayDeque<BlockPos> batchOrder = new ArrayDeque<>();
+    // Set after getting stuck: a target in reach to mine before going back to the closest ones.
+    private BlockPos preferredTarget;
+    // Targets findNextTarget looks at per call, the next ones in the strategy's order.
+    private static final int TARGET_CANDIDATES = 16;
+    // Set-cover stand planning (see StandPlanner): the stop being mined from and the ones after it.
+    private StandPlanner.Stop coverStop;
+    private final ArrayDeque<StandPlanner.Stop> coverStops = new ArrayDeque<>();
+    // Stops no path was found to, and whether the last plan found no stop; both reset with each layer.
+    private final Set<Long> blockedStops = new HashSet<>();
+    private boolean coverExhausted;
+    // Set while the running search leads to coverStop rather than to a cell near the target.
+    private boolean stopSearch;
+    private static final int COVER_TARGETS = 48;
+    // Upcoming targets in the order the RouteOptimizer chose when there are no stops to mine from, with
+    // when the last route (over these targets or over coverStops) was planned and what it predicted.
+    private final ArrayDeque<BlockPos> route = new ArrayDeque<>();
+    private long routeStartTick;
+    private double routePredictedTicks;
+    private int routeSize;
+    private boolean routeOverStops;
+    // Break times for every search, distance field, cluster, route and the predicted vs. actual log;
+    // captured again only when the hotbar's tools change (see breakEstimator()).
+    private BreakTimeEstimator breakEstimator;
+    private long tickCount;
+    // When the block being broken was first hit and how long it was predicted to take.
+    private long breakStartTick;
+    private int breakPredictedTicks;
+    // Totals of predicted and actual break ticks over the operation, and the summed absolute error.
+    private long predictedBreakTicks, actualBreakTicks, breakTickError;
+    private int timedBreaks;
     private final Set<BlockPos> skippedBlocks = new HashSet<>();
+    // Skipped targets whose search failed, kept out of retries until a section that search read changes.
+    private final UnreachableTargets unreachableTargets = new UnreachableTargets();
+    // Recent routes; the next target can often be mined from a cell on one of them.
+    private final PathCache pathCache = new PathCache();
     private int actionDelay = 0;
     private int movementStuckTimer = 0;
+    private double closestToNode = Double.POSITIVE_INFINITY;
     private int repositioningStuckTimer = 0; // New timer for repositioning cycles
     private static final int MAX_REPOSITIONING_CYCLES = 10; // Max cycles before declaring stuck
-    private static final double MAX_REACH_DISTANCE_SQUARED = 25.0; // 5 Blöcke Reichweite
+    static final double MAX_REACH_DISTANCE_SQUARED = 25.0; // 5 Blöcke Reichweite
+    // Pure pursuit: distance of the steering point ahead of the player along the path.
+    private static final double LOOKAHEAD_DISTANCE = 1.5;
+    // Nodes the miner runs through count as reached within this radius; nodes it has to stop at need 0.5.
+    private static final double PASS_RADIUS_SQUARED = 0.6 * 0.6;
+    // Sprint only with this much free, level path ahead, so there is room to brake.
+    private static final double SPRINT_MIN_DISTANCE = 3.0;
+    // Cheap blocks the miner may place below itself to pillar up.
+    private static final Set<Block> PILLAR_BLOCKS = Set.of(Blocks.COBBLESTONE, Blocks.COBBLED_DEEPSLATE, Blocks.DIRT,
+            Blocks.NETHERRACK, Blocks.STONE, Blocks.ANDESITE, Blocks.DIORITE, Blocks.GRANITE, Blocks.TUFF);
     
     // Helper methods for safe inventory slot access
     private static Field selectedSlotField = null;
@@ -144,7 +226,7 @@ public class MiningLogic {
 
     public MiningLogic(MinecraftClient client, TrainingData trainingData, AutoMinerConfig config) {
         this.client = client;
-        this.pathfinder = new Pathfinder();
+        this.pathfinder = new Pathfinder(config);
         this.trainingData = trainingData;
         this.config = config;
     }
@@ -186,14 +268,40 @@ public class MiningLogic {
         this.miningArea = area;
         this.isTrainingSession = isTraining;
         resetPlanner();
+        this.snapshot = null;
+        this.clusterGraph = new ClusterGraph(area);
+        this.distanceField = null;
+        this.pendingField = null;
+        this.pendingFieldCancelled.set(true);
+        this.connectivity = null;
+        this.liveMovement = null;
+        this.pendingConnectivity = null;
         this.skippedBlocks.clear();
-        this.blocksToMine = new ArrayList<>();
+        this.unreachableTargets.clear();
+        this.pathCache.clear();
+        this.sightCache.clear();
+        this.blocksToMine = new TargetIndex();
+        this.batchOrder.clear();
+        this.preferredTarget = null;
+        this.route.clear();
+        this.breakEstimator = null;
+        this.predictedBreakTicks = this.actualBreakTicks = this.breakTickError = 0;
+        this.timedBreaks = 0;
+        dropStops();
+        this.blockedStops.clear();
+        this.coverExhausted = false;
         this.logger = new MiningLogger();
         logger.log("Starting new mining operation. Training: " + isTraining);
+        this.rewardOverlay = RewardOverlay.build(trainingData.getRewardMemory(), area.getStartPos(), area.getEndPos());
+        if (rewardOverlay == null) logger.log("Area too large for a reward overlay. Planning without learned rewards.");
         this.totalRewards = 0;
         this.miningStreak = 0;
         this.penaltyStreak = 0;
-        this.currentMiningY = area.getEndPos().getY();
+        this.miningStrategy = client.player != null
+                ? MiningStrategy.create(config.miningStrategy, area, client.player.getBlockPos(), abilities().pillar)
+                : MiningStrategy.create(config.miningStrategy, area, area.getEndPos(), config.allowPillaring);
+        this.batchMinY = this.batchMaxY = area.getEndPos().getY();
+        logger.log("Mining strategy: " + miningStrategy.getName());
         this.repositioningStuckTimer = 0; // Reset stuck timer
         this.currentState = State.PATHFINDING;
         area.setActive(true);
@@ -221,6 +329,7 @@ public class MiningLogic {
             if(client.options.forwardKey.isPressed()){
                 client.options.forwardKey.setPressed(false);
             }
+            client.options.sprintKey.setPressed(false);
             if (client.player != null) {
                 client.player.sendMessage(Text.literal("§eAutoMiner paused."), false);
             }
@@ -240,15 +349,18 @@ public class MiningLogic {
     public void tick() {
         if (client.player == null || client.world == null || miningArea == null || currentState == State.IDLE || currentState == State.FINISHED) {
             if (client.options.forwardKey.isPressed()) client.options.forwardKey.setPressed(false);
+            if (client.options.sprintKey.isPressed()) client.options.sprintKey.setPressed(false);
             return;
         }
 
+        tickCount++;
         if (actionDelay > 0) {
             actionDelay--;
             return;
         }
 
         if (currentState != State.MOVING) {
+            client.options.sprintKey.setPressed(false);
             client.options.forwardKey.setPressed(false);
             client.options.backKey.setPressed(false);
             client.options.leftKey.setPressed(false);
@@ -270,24 +382,22 @@ public class MiningLogic {
     private void handlePathfindingState() {
         if (blocksToMine.isEmpty()) {
             if (!generateNextLayerBasedOnPosition()) {
-                if(skippedBlocks.isEmpty()) {
+                if (!retrySkippedBlocks()) {
                     finishMining();
                     return;
                 }
-                blocksToMine.addAll(skippedBlocks);
-                skippedBlocks.clear();
             }
         }
         
-        targetBlock = findNextTarget();
+        targetBlock = takePreferredTarget();
+        if (targetBlock == null) targetBlock = nextCoveredTarget();
+        if (targetBlock == null) targetBlock = findNextTarget();
 
         if (targetBlock == null) {
             logger.log("No primary targets left. Retrying " + skippedBlocks.size() + " skipped blocks.");
-            if (skippedBlocks.isEmpty()) {
+            if (!retrySkippedBlocks()) {
                 finishMining();
             } else {
-                blocksToMine.addAll(skippedBlocks);
-                skippedBlocks.clear();
                 targetBlock = findNextTarget();
                 if (targetBlock == null) {
                     finishMining();
@@ -302,40 +412,93 @@ public class MiningLogic {
     }
     
     private void handleCalculatingPathState() {
-        PathfinderResult result = pathfinder.continuePath(targetBlock, true);
+        PathfinderResult result;
+        if (pendingSearch != null) {
+            if (!pendingSearch.isDone()) return;
+            result = collectBackgroundResult();
+            if (result == null) {
+                // Search was cancelled or crashed, plan again from the current position.
+                currentState = State.REPOSITIONING;
+                return;
+            }
+            if (incrementalPlanner != null) {
+                // Keep the search tree, but repair it against the live world from now on.
+                incrementalPlanner.setPassability(passability());
+            }
+        } else if (incrementalPlanner != null) {
+            result = incrementalPlanner.compute(config.nodesPerTick);
+        } else {
+            result = pathfinder.continuePath(config.nodesPerTick);
+        }
         
         if (result == null) return;
 
         switch (result.type) {
+            case PARTIAL:
+                if (partialPaths >= MAX_PARTIAL_PATHS) {
+                    skipUnreachableTarget(PathFindResultType.SEARCH_LIMIT_REACHED);
+                    break;
+                }
+                partialPaths++;
+                logger.log("Pathfinder limit reached. Following partial path to " + result.standPos.toShortString()
+                        + " (" + partialPaths + "/" + MAX_PARTIAL_PATHS + ") and planning again from there.");
+                // fall through: move along it like a full path, then replan from its end
             case SUCCESS:
+                // A stand position out of reach of the target is a cluster entrance on a coarse route.
+                routeHop = result.type == PathFindResultType.PARTIAL || (targetBlock != null && result.standPos != null
+                        && Vec3d.ofCenter(result.standPos).add(0, 1.62, 0).squaredDistanceTo(Vec3d.ofCenter(targetBlock)) > MAX_REACH_DISTANCE_SQUARED);
                 if (result.path.isEmpty()) {
-                    currentState = State.MINING;
+                    completePath();
                 } else {
+                    if (config.pathCache && searchStart != null) pathCache.add(searchStart, result.path);
                     this.standPos = result.standPos;
-                    this.currentPath = result.path;
+                    this.currentPath = smoothed(result.path);
                     this.pathIndex = 0;
                     this.movementStuckTimer = 0;
+                    this.closestToNode = Double.POSITIVE_INFINITY;
                     this.currentState = State.MOVING;
+                    if (result.type == PathFindResultType.SUCCESS && lastSearch != null && lastSearch.canRefine()) {
+                        startRefinement(lastSearch);
+                    }
                 }
                 break;
             case NO_PATH:
             case SEARCH_LIMIT_REACHED:
-                String reason = result.type == PathFindResultType.NO_PATH ? "No path found" : "Pathfinder limit reached";
-                logger.log(reason + " to target " + targetBlock.toShortString() + ". Skipping it.");
-                client.player.sendMessage(Text.literal("§e" + reason + ", skipping block."), false);
-                applyPenalty(-5, "Unreachable target");
-                skipCurrentTarget();
-                currentState = State.PATHFINDING;
+                skipUnreachableTarget(result.type);
                 break;
         }
     }
 
+    private void skipUnreachableTarget(PathFindResultType type) {
+        if (stopSearch) {
+            // The stop is out of reach, not the target; plan again without it.
+            logger.log("No path to stop " + coverStop.cell.toShortString() + ". Planning stops again.");
+            blockedStops.add(coverStop.cell.asLong());
+            dropStops();
+            resetPlanner();
+            currentState = State.PATHFINDING;
+            return;
+        }
+        String reason = type == PathFindResultType.NO_PATH ? "No path found" : "Pathfinder limit reached";
+        logger.log(reason + " to target " + targetBlock.toShortString() + ". Skipping it.");
+        if (lastSearch != null) {
+            long[] sections = lastSearch.getTouchedSections();
+            if (unreachableTargets.record(targetBlock, type, sections, searchStamp)) {
+                logger.log("Not retrying " + targetBlock.toShortString() + " until one of " + sections.length + " sections changes.");
+            }
+        }
+        client.player.sendMessage(Text.literal("§e" + reason + ", skipping block."), false);
+        applyPenalty(-5, "Unreachable target");
+        skipCurrentTarget();
+        currentState = State.PATHFINDING;
+    }
+
     private void handleRepositioningState() {
         if (targetBlock == null) {
             currentState = State.PATHFINDING;
             return;
         }
-        
+
         // Check if current position is good enough for mining
         double distanceSquared = client.player.getEyePos().squaredDistanceTo(Vec3d.ofCenter(targetBlock));
         boolean hasLineOfSight = hasLineOfSight(targetBlock);
@@ -347,93 +510,482 @@ public class MiningLogic {
             return;
         }
 
-        // Try to find a simple, close position first
+        // Walk to the planned stop; the target and the rest of the stop's blocks are mined from there.
+        if (coverStop != null && !client.player.getBlockPos().equals(coverStop.cell)) {
+            startSearch(client.player.getBlockPos(), coverStop.cell, false);
+            stopSearch = true;
+            currentState = State.CALCULATING_PATH;
+            return;
+        }
+
+        if (followCachedPath()) return;
+
+        // A field for this cell is already being built; a search now would only queue behind it.
+        if (pendingField != null && !pendingField.isDone() && client.player.getBlockPos().equals(pendingFieldOrigin)) {
+            return;
+        }
+
+        if (followDistanceField()) return;
+
+        // Try to find a simple, close position first: the nearest cell on this level the target can be mined from
         BlockPos currentPos = client.player.getBlockPos();
-        List<BlockPos> simplePositions = new ArrayList<>();
+        PassabilityCache cache = passability();
+        for (int offset : ReachOffsets.NEARBY) {
+            int x = currentPos.getX() + ReachOffsets.x(offset), y = currentPos.getY(), z = currentPos.getZ() + ReachOffsets.z(offset);
+            double ex = x - targetBlock.getX(), ey = y + StandRegion.EYE_HEIGHT - targetBlock.getY(), ez = z - targetBlock.getZ();
+            if (ex * ex + ey * ey + ez * ez > MAX_REACH_DISTANCE_SQUARED || !cache.isSafeToStandOn(x, y, z)) continue;
+            if (sightCache.canSee(cache, x, y, z, targetBlock)) {
+                startSearch(currentPos, new BlockPos(x, y, z), false);
+                currentState = State.CALCULATING_PATH;
+                return;
+            }
+        }
         
-        // Check positions in a small radius around current position
-        for (int dx = -2; dx <= 2; dx++) {
-            for (int dz = -2; dz <= 2; dz++) {
-                if (dx == 0 && dz == 0) continue; // Skip current position
-                
-                BlockPos candidate = currentPos.add(dx, 0, dz);
-                Vec3d candidateEye = Vec3d.ofCenter(candidate).add(0, 1.62, 0);
-                
-                // Check if this position can reach the target
-                double candidateDistance = candidateEye.squaredDistanceTo(Vec3d.ofCenter(targetBlock));
-                if (candidateDistance <= MAX_REACH_DISTANCE_SQUARED && isSafeToStandOn(candidate)) {
-                    // Test line of sight from this position
-                    HitResult hitResult = client.world.raycast(new RaycastContext(
-                        candidateEye, Vec3d.ofCenter(targetBlock),
-                        RaycastContext.ShapeType.COLLIDER,
-                        RaycastContext.FluidHandling.NONE,
-                        client.player
-                    ));
-                    
-                    if (hitResult.getType() == HitResult.Type.MISS || 
-                        (hitResult.getType() == HitResult.Type.BLOCK && 
-                         ((BlockHitResult) hitResult).getBlockPos().equals(targetBlock))) {
-                        simplePositions.add(candidate);
-                    }
+        // If simple positions don't work, try the more complex pathfinding
+        startSearch(currentPos, targetBlock, true);
+        currentState = State.CALCULATING_PATH;
+    }
+
+    /**
+     * Starts a path search, either on the planner thread against a snapshot of the area or
+     * time-sliced on the client thread (see {@link AutoMinerConfig#backgroundPathfinding}).
+     * Far targets are approached one cluster hop at a time when hierarchical pathfinding is on.
+     */
+    private void startSearch(BlockPos start, BlockPos goal, boolean findStandPos) {
+        cancelPendingSearch();
+        incrementalPlanner = null;
+        repairInProgress = false;
+        lastSearch = null;
+        stopSearch = false;
+        searchStart = start;
+        searchStamp = unreachableTargets.stamp();
+        ClusterGraph graph = config.hierarchicalPathfinding && findStandPos ? clusterGraph : null;
+        BreakTimeEstimator breakTimes = breakTimes();
+        MovementModel.Abilities abilities = abilities();
+        if (config.backgroundPathfinding) {
+            BlockSnapshot captured = captureSnapshot(start);
+            if (captured != null) {
+                RewardOverlay rewards = rewardOverlay;
+                PassabilityCache cache = new PassabilityCache(captured);
+                MiningArea area = miningArea;
+                searchStartedAt = System.nanoTime();
+                if (config.incrementalReplanning) {
+                    IncrementalPlanner planner = new IncrementalPlanner(config);
+                    incrementalPlanner = planner;
+                    pendingSearch = plannerExecutor.submit(() -> {
+                        MovementModel movement = new MovementModel(cache, area, rewards, start.getY(), breakTimes, abilities);
+                        BlockPos hop = nextRouteHop(graph, movement, start, goal);
+                        planner.start(movement, start, hop != null ? hop : goal, hop == null && findStandPos);
+                        return planner.runToCompletion();
+                    });
+                    return;
                 }
+                Pathfinder search = new Pathfinder(config, plannerArena);
+                activeSearch = search;
+                pendingSearch = plannerExecutor.submit(() -> {
+                    MovementModel movement = new MovementModel(cache, area, rewards, start.getY(), breakTimes, abilities);
+                    BlockPos hop = nextRouteHop(graph, movement, start, goal);
+                    search.startPath(movement, start, hop != null ? hop : goal, hop == null && findStandPos);
+                    return search.runToCompletion();
+                });
+                return;
             }
+            logger.log("Area too large for a snapshot. Falling back to time-sliced search.");
         }
-        
-        // Try simple positions first (just move to adjacent blocks)
-        if (!simplePositions.isEmpty()) {
-            // Sort by distance to current position
-            simplePositions.sort((a, b) -> Double.compare(
-                currentPos.getSquaredDistance(a), 
-                currentPos.getSquaredDistance(b)
-            ));
-            
-            BlockPos target = simplePositions.get(0);
-            pathfinder.startPath(currentPos, target, false);
-            currentState = State.CALCULATING_PATH;
+        MovementModel movement = new MovementModel(passability(), miningArea, rewardOverlay, start.getY(), breakTimes, abilities);
+        BlockPos hop = nextRouteHop(graph, movement, start, goal);
+        BlockPos searchGoal = hop != null ? hop : goal;
+        boolean searchStandPos = hop == null && findStandPos;
+        if (config.incrementalReplanning) {
+            incrementalPlanner = new IncrementalPlanner(config);
+            incrementalPlanner.start(movement, start, searchGoal, searchStandPos);
             return;
         }
-        
-        // If simple positions don't work, try the more complex pathfinding
-        pathfinder.startPath(currentPos, targetBlock, true);
-        currentState = State.CALCULATING_PATH;
+        pathfinder.startPath(movement, start, searchGoal, searchStandPos);
+        lastSearch = pathfinder;
+    }
+
+    /** Break times for the tools in the hotbar right now, or null to charge a flat cost (see {@link AutoMinerConfig#breakTimeCosts}). */
+    private BreakTimeEstimator breakTimes() {
+        return config.breakTimeCosts ? breakEstimator() : null;
+    }
+
+    /**
+     * The estimator for the hotbar right now. Kept while the tools stay the same, so its per-state
+     * cache carries over from one search to the next.
+     */
+    private BreakTimeEstimator breakEstimator() {
+        if (breakEstimator == null || !breakEstimator.matches(client.player)) {
+            breakEstimator = BreakTimeEstimator.capture(client.player, BreakTimeEstimator.findEfficiency(client.world));
+        }
+        return breakEstimator;
+    }
+
+    /** Sprinting, drop height and pillaring as far as the player's food, health and hotbar allow them right now. */
+    private MovementModel.Abilities abilities() {
+        PlayerEntity player = client.player;
+        boolean sprint = config.allowSprint && player.getHungerManager().getFoodLevel() > 6;
+        // Never plan a fall that could kill, whatever the budget says.
+        int damageBudget = Math.min(config.maxFallDamage, (int) Math.ceil(player.getHealth()) - 1);
+        int maxDrop = MovementModel.SAFE_DROP + Math.max(0, damageBudget);
+        boolean pillar = config.allowPillaring && findPillarBlockSlot(player.getInventory()) >= 0;
+        return new MovementModel.Abilities(sprint, maxDrop, pillar);
+    }
+
+    /** @return a hotbar slot holding a block that can be placed to pillar up, or -1. */
+    private static int findPillarBlockSlot(PlayerInventory inventory) {
+        for (int i = 0; i < 9; i++) {
+            ItemStack stack = inventory.getStack(i);
+            if (stack.getItem() instanceof BlockItem blockItem && PILLAR_BLOCKS.contains(blockItem.getBlock())) return i;
+        }
+        return -1;
+    }
+
+    /** Copies the area and the cells around {@code start} for the planner thread. Null if the area is too large. */
+    private BlockSnapshot captureSnapshot(BlockPos start) {
+        BlockSnapshot captured = BlockSnapshot.capture(client.world, snapshotMin(start), snapshotMax(start), snapshot);
+        if (captured != null) snapshot = captured;
+        return captured;
+    }
+
+    /** Lower corner of the snapshot box: the area plus a margin on every side, and the cells around {@code start}. */
+    private BlockPos snapshotMin(BlockPos start) {
+        BlockPos min = miningArea.getStartPos().add(-SNAPSHOT_MARGIN, -SNAPSHOT_MARGIN, -SNAPSHOT_MARGIN);
+        return new BlockPos(Math.min(min.getX(), start.getX() - 2), Math.min(min.getY(), start.getY() - 2), Math.min(min.getZ(), start.getZ() - 2));
+    }
+
+    private BlockPos snapshotMax(BlockPos start) {
+        BlockPos max = miningArea.getEndPos().add(SNAPSHOT_MARGIN, SNAPSHOT_MARGIN, SNAPSHOT_MARGIN);
+        return new BlockPos(Math.max(max.getX(), start.getX() + 2), Math.max(max.getY(), start.getY() + 2), Math.max(max.getZ(), start.getZ() + 2));
+    }
+
+    /**
+     * Builds a new distance field from the player's cell over the layer band on the planner thread,
+     * stopping the build it replaces.
+     */
+    private void requestDistanceField() {
+        if (!config.flowFieldPlanning || !config.backgroundPathfinding) return;
+        if (pendingField != null) pendingField.cancel(false);
+        pendingFieldCancelled.set(true);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        pendingFieldCancelled = cancelled;
+        BlockPos origin = client.player.getBlockPos();
+        BlockSnapshot captured = captureSnapshot(origin);
+        if (captured == null) return;
+        BlockPos min = layerBandMin(origin), max = layerBandMax(origin);
+        MovementModel movement = new MovementModel(new PassabilityCache(captured), miningArea, rewardOverlay, origin.getY(), breakTimes(), abilities());
+        pendingFieldOrigin = origin;
+        pendingField = plannerExecutor.submit(() -> DistanceField.build(movement, origin, min, max, cancelled::get));
+    }
+
+    /**
+     * True if the distance field has to be built again after {@code mined} was broken. The field only
+     * serves the cell it was built from, so a player who moved needs a new one. Otherwise a mined block
+     * only makes moves cheaper, which leaves the field pessimistic but its routes walkable, unless it
+     * was the floor of an open cell a route could stand in.
+     */
+    private boolean distanceFieldStale(BlockPos mined) {
+        BlockPos origin = pendingField != null ? pendingFieldOrigin : distanceField != null ? distanceField.getOrigin() : null;
+        if (origin == null || !origin.equals(client.player.getBlockPos())) return true;
+        PassabilityCache cache = passability();
+        return cache.isFree(mined.getX(), mined.getY() + 1, mined.getZ()) && cache.isFree(mined.getX(), mined.getY() + 2, mined.getZ());
+    }
+
+    /** Lower corner of the layer band: the area plus a margin, from below the layers being mined to above them and the player. */
+    private BlockPos layerBandMin(BlockPos player) {
+        return new BlockPos(miningArea.getStartPos().getX() - FIELD_MARGIN, Math.min(batchMinY - FIELD_BELOW, player.getY()),
+                miningArea.getStartPos().getZ() - FIELD_MARGIN);
+    }
+
+    private BlockPos layerBandMax(BlockPos player) {
+        return new BlockPos(miningArea.getEndPos().getX() + FIELD_MARGIN, Math.max(batchMaxY + FIELD_ABOVE, player.getY() + 1),
+                miningArea.getEndPos().getZ() + FIELD_MARGIN);
+    }
+
+    /**
+     * Builds the connectivity of the snapshot box around the area on the planner thread. Called once
+     * per layer; block updates after that are unioned in on the client thread.
+     */
+    private void requestConnectivity() {
+        if (!config.connectivityAnalysis || !config.backgroundPathfinding) return;
+        if (pendingConnectivity != null) pendingConnectivity.cancel(false);
+        connectivity = null;
+        connectivityUpdates.clear();
+        BlockPos player = client.player.getBlockPos();
+        BlockSnapshot captured = captureSnapshot(player);
+        if (captured == null) return;
+        // Same box as the snapshot, so routes that leave the layer band still connect.
+        BlockPos min = snapshotMin(player), max = snapshotMax(player);
+        MovementModel movement = new MovementModel(new PassabilityCache(captured), miningArea, null, player.getY(), null, abilities());
+        pendingConnectivity = plannerExecutor.submit(() -> AreaConnectivity.build(movement, min, max));
+    }
+
+    /** @return the connectivity of the snapshot box, or null while it is not built. */
+    private AreaConnectivity connectivity() {
+        if (pendingConnectivity != null && pendingConnectivity.isDone()) {
+            try {
+                connectivity = pendingConnectivity.get();
+            } catch (CancellationException | ExecutionException e) {
+                connectivity = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pendingConnectivity = null;
+            if (connectivity != null) {
+                // Catch up with the blocks that changed while it was built.
+                MovementModel movement = liveMovement();
+                for (BlockPos pos : connectivityUpdates) connectivity.blockChanged(movement, pos);
+                logConnectivity();
+            }
+            connectivityUpdates.clear();
+        }
+        return connectivity;
+    }
+
+    /** A model of the live world without rewards or break times, built at most once per tick. */
+    private MovementModel liveMovement() {
+        PassabilityCache cache = passability();
+        if (liveMovement == null || liveMovementTick != tickCount || liveMovement.getPassability() != cache) {
+            liveMovement = new MovementModel(cache, miningArea, null, client.player.getBlockY(), null, abilities());
+            liveMovementTick = tickCount;
+        }
+        return liveMovement;
+    }
+
+    private void logConnectivity() {
+        int reachable = 0, needsDigging = 0, isolated = 0;
+        BlockPos player = client.player.getBlockPos();
+        for (BlockPos pos : blocksToMine) {
+            switch (connectivity.classify(pos, player)) {
+                case REACHABLE: reachable++; break;
+                case NEEDS_DIGGING: needsDigging++; break;
+                case ISOLATED: isolated++; break;
+                default: break;
+            }
+        }
+        logger.log("Layer connectivity: " + reachable + " reachable, " + needsDigging + " need digging, " + isolated + " isolated.");
+    }
+
+    /**
+     * True if the connectivity analysis finds no route to {@code target} inside its box. Routes that
+     * leave the box are not seen, so this only ranks the target last and never skips it by itself.
+     */
+    private boolean isIsolated(BlockPos target) {
+        AreaConnectivity areaConnectivity = connectivity();
+        // In the air the player's cell may not connect to anything yet.
+        return areaConnectivity != null && client.player.isOnGround()
+                && areaConnectivity.classify(target, client.player.getBlockPos()) == AreaConnectivity.Reachability.ISOLATED;
+    }
+
+    /** @return the distance field if it was built from the player's current cell, otherwise null. */
+    private DistanceField usableDistanceField() {
+        if (pendingField != null && pendingField.isDone()) {
+            try {
+                distanceField = pendingField.get();
+            } catch (CancellationException | ExecutionException e) {
+                distanceField = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pendingField = null;
+        }
+        DistanceField field = distanceField;
+        return field != null && field.getOrigin().equals(client.player.getBlockPos()) ? field : null;
+    }
+
+    /**
+     * Reads the route to the closest stand position of the target straight from the distance field.
+     * @return true if a route was found and the miner is moving (or already mining).
+     */
+    private boolean followDistanceField() {
+        DistanceField field = usableDistanceField();
+        if (field == null) return false;
+        BlockPos cell = field.closestCell(StandRegion.compute(passability(), targetBlock, sightCache));
+        if (cell == null) return false;
+        List<BlockPos> path = field.pathTo(cell);
+        if (config.pathCache) pathCache.add(field.getOrigin(), path);
+        logger.log("Route to " + cell.toShortString() + " read from distance field (" + path.size() + " steps).");
+        this.routeHop = false;
+        this.standPos = cell;
+        this.currentPath = smoothed(path);
+        this.pathIndex = 0;
+        this.movementStuckTimer = 0;
+        this.closestToNode = Double.POSITIVE_INFINITY;
+        this.currentState = path.isEmpty() ? State.MINING : State.MOVING;
+        return true;
+    }
+
+    /**
+     * Reuses a stretch of a recent route that leads from the player's cell to a cell the target can
+     * be mined from (see {@link PathCache}).
+     * @return true if such a stretch was found and the miner is moving.
+     */
+    private boolean followCachedPath() {
+        BlockPos from = client.player.getBlockPos();
+        if (!config.pathCache || !pathCache.passes(from)) return false;
+        List<BlockPos> path = pathCache.find(liveMovement(), from, StandRegion.compute(passability(), targetBlock, sightCache));
+        if (path == null) return false;
+        logger.log("Reusing " + path.size() + " steps of a cached route to " + path.get(path.size() - 1).toShortString() + ".");
+        this.routeHop = false;
+        this.standPos = path.get(path.size() - 1);
+        this.currentPath = smoothed(path);
+        this.pathIndex = 0;
+        this.movementStuckTimer = 0;
+        this.closestToNode = Double.POSITIVE_INFINITY;
+        this.currentState = State.MOVING;
+        return true;
+    }
+
+    /**
+     * Plans a coarse route over the cluster graph and returns its first entrance, so the local search
+     * only has to reach the next cluster. Runs on whichever thread runs the search.
+     * @return the entrance, or null if the local search should go straight to the target.
+     */
+    private static BlockPos nextRouteHop(ClusterGraph graph, MovementModel movement, BlockPos start, BlockPos target) {
+        if (graph == null || start.getSquaredDistance(target) < HIERARCHY_MIN_DISTANCE * HIERARCHY_MIN_DISTANCE) return null;
+        List<BlockPos> route = graph.findRoute(movement, start, target);
+        return route == null || route.isEmpty() ? null : route.get(0);
+    }
+
+    private PathfinderResult collectBackgroundResult() {
+        Future<PathfinderResult> finished = pendingSearch;
+        Pathfinder search = activeSearch;
+        pendingSearch = null;
+        activeSearch = null;
+        lastSearch = search;
+        try {
+            PathfinderResult result = finished.get();
+            if (result != null) {
+                int nodes = search != null ? search.getIterations() : incrementalPlanner.getNodeCount();
+                logger.log("Background search finished: " + result.type + " after " + nodes
+                        + " nodes in " + (System.nanoTime() - searchStartedAt) / 1_000_000 + " ms.");
+                long bytesPerNode = search != null ? search.getBytesPerNode() : -1;
+                if (bytesPerNode > Pathfinder.MAX_BYTES_PER_NODE) {
+                    logger.log("Search allocated " + bytesPerNode + " bytes per expanded node, more than the "
+                            + Pathfinder.MAX_BYTES_PER_NODE + " an allocation-free search stays under.");
+                }
+            }
+            return result;
+        } catch (CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            logger.log("Background search failed: " + e.getCause());
+            return null;
+        }
+    }
+
+    /** Keeps improving the path of {@code search} while the miner walks it (see {@link SearchMode#ANYTIME}). */
+    private void startRefinement(Pathfinder search) {
+        refiningSearch = search;
+        // The client-thread search is refined a slice per tick instead.
+        if (search != pathfinder) pendingRefinement = plannerExecutor.submit(search::refineToCompletion);
+    }
+
+    /** Picks up a cheaper path from the refining search, if one is ready. */
+    private void refinePath() {
+        if (refiningSearch == null) return;
+        PathfinderResult better;
+        if (pendingRefinement != null) {
+            // Check for completion first, so an improvement published just before it is not lost.
+            boolean done = pendingRefinement.isDone();
+            better = refiningSearch.takeImprovement();
+            if (done) stopRefinement();
+        } else {
+            better = refiningSearch.refine(config.nodesPerTick);
+            if (!refiningSearch.canRefine()) refiningSearch = null;
+        }
+        if (better == null) return;
+
+        // The refined path starts where the search started; continue it from the player's cell.
+        BlockPos player = client.player.getBlockPos();
+        int index = better.path.indexOf(player);
+        if (index < 0 && !player.equals(searchStart)) {
+            logger.log("Refined path does not pass the player. Keeping the current one.");
+            return;
+        }
+        List<BlockPos> rest = new ArrayList<>(better.path.subList(index + 1, better.path.size()));
+        if (rest.isEmpty()) return;
+        logger.log("Switched to a refined path (" + better.path.size() + " steps).");
+        if (config.pathCache) pathCache.add(searchStart, better.path);
+        this.standPos = better.standPos;
+        this.currentPath = smoothed(rest);
+        this.pathIndex = 0;
+        this.closestToNode = Double.POSITIVE_INFINITY;
+    }
+
+    private void stopRefinement() {
+        if (pendingRefinement != null) {
+            // Only background searches are cancelled; the client-thread pathfinder is reused.
+            refiningSearch.cancel();
+            pendingRefinement.cancel(false);
+            pendingRefinement = null;
+        }
+        refiningSearch = null;
+    }
+
+    private void cancelPendingSearch() {
+        stopRefinement();
+        if (pendingSearch != null && incrementalPlanner != null) {
+            incrementalPlanner.cancel();
+        }
+        if (activeSearch != null) {
+            activeSearch.cancel();
+            activeSearch = null;
+        }
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+            pendingSearch = null;
+        }
+    }
+
+    /**
+     * Called on the client thread whenever a block in the world changes.
+     */
+    public void onBlockUpdate(BlockPos pos) {
+        if (snapshot != null) {
+            snapshot.markStale(pos);
+        }
+        if (passability != null) {
+            passability.invalidate(pos);
+        }
+        if (incrementalPlanner != null) {
+            incrementalPlanner.blockChanged(pos);
+        }
+        if (clusterGraph != null) {
+            clusterGraph.blockChanged(pos);
+        }
+        unreachableTargets.onBlockUpdate(pos);
+        sightCache.onBlockUpdate(pos);
+        if (visibility != null && visibility.covers(pos)) {
+            visibility = null;
+        }
+        if (pendingConnectivity != null) {
+            connectivityUpdates.add(pos);
+        } else if (connectivity != null && client.player != null && connectivity.isAffectedBy(pos)) {
+            connectivity.blockChanged(liveMovement(), pos);
+        }
     }
     
     private void handleMovingState() {
         if (currentPath == null || pathIndex >= currentPath.size()) {
-            logger.log("Path complete. Switching to MINING.");
-            currentState = State.MINING; 
+            logger.log("Path complete.");
+            completePath();
             return;
         }
+
+        if (incrementalPlanner != null && (incrementalPlanner.hasPendingChanges() || repairInProgress) && pendingSearch == null) {
+            if (!repairPath()) return;
+        }
+        refinePath();
     
         BlockPos nextPos = currentPath.get(pathIndex);
-        Vec3d playerPosVec = client.player.getPos();
-        Vec3d nextPosVec = Vec3d.ofCenter(nextPos);
-    
-        double dx = playerPosVec.x - nextPosVec.x;
-        double dz = playerPosVec.z - nextPosVec.z;
-        double horizontalDistanceSq = dx * dx + dz * dz;
-    
-        double dy = playerPosVec.y - nextPos.getY();
-    
-        if (horizontalDistanceSq < 0.25 && dy >= 0 && dy < 1.5) {
-            logger.log("Reached path node " + pathIndex + " at " + nextPos.toShortString());
-            pathIndex++;
-            movementStuckTimer = 0; 
-            if (pathIndex >= currentPath.size()) {
-                currentState = State.MINING;
-                return;
-            }
-        }
-
-        BlockState nextState = client.world.getBlockState(nextPos);
-        BlockState nextHeadState = client.world.getBlockState(nextPos.up());
-
-        boolean feetBlocked = !nextState.getCollisionShape(client.world, nextPos).isEmpty();
-        boolean headBlocked = !nextHeadState.getCollisionShape(client.world, nextPos.up()).isEmpty();
-
-        if ((feetBlocked && !isIgnorableVegetation(nextState)) || (headBlocked && !isIgnorableVegetation(nextHeadState))) {
-            BlockPos blockToBreak = feetBlocked ? nextPos : nextPos.up();
+        BlockPos blockToBreak = obstacleBefore(nextPos);
+        if (blockToBreak != null) {
             logger.log("Next step requires breaking an obstacle at " + blockToBreak.toShortString());
+            client.options.sprintKey.setPressed(false);
 
             if (client.player.getEyePos().squaredDistanceTo(Vec3d.ofCenter(blockToBreak)) > MAX_REACH_DISTANCE_SQUARED) {
                 logger.log("Obstacle block out of reach. This should not happen. Stuck.");
@@ -446,14 +998,125 @@ public class MiningLogic {
             return; 
         }
 
-        moveTowards(nextPos);
-        
+        if (needsPillarBlock(nextPos)) {
+            pillarUp(nextPos);
+            return;
+        }
+
+        if (hasPassed(pathIndex)) {
+            logger.log("Reached path node " + pathIndex + " at " + nextPos.toShortString());
+            pathIndex++;
+            movementStuckTimer = 0; 
+            closestToNode = Double.POSITIVE_INFINITY;
+            if (pathIndex >= currentPath.size()) {
+                completePath();
+                return;
+            }
+        }
+
+        followPath(nextPos);
+
+        // Smoothed paths have long segments, so only ticks without getting closer to the next node count as stuck.
+        double distance = client.player.getPos().distanceTo(Vec3d.ofBottomCenter(currentPath.get(pathIndex)));
+        if (distance < closestToNode - 0.1) {
+            closestToNode = distance;
+            movementStuckTimer = 0;
+        }
         movementStuckTimer++;
         if (movementStuckTimer > config.maxStuckTicks) {
             currentState = State.STUCK;
         }
     }
 
+    /**
+     * The block that has to be broken before the step to {@code next}: room to jump for steps up,
+     * then the feet and head cells of {@code next}. Null if the way is free.
+     */
+    private BlockPos obstacleBefore(BlockPos next) {
+        if (next.getY() > client.player.getBlockY()) {
+            BlockPos aboveHead = client.player.getBlockPos().up(2);
+            if (!passability().isWalkable(aboveHead)) return aboveHead;
+        }
+        if (!passability().isWalkable(next)) return next;
+        if (!passability().isWalkable(next.up())) return next.up();
+        return null;
+    }
+
+    /** True if {@code next} is the cell above the player and the block to stand on there still has to be placed. */
+    private boolean needsPillarBlock(BlockPos next) {
+        BlockPos below = next.down();
+        return client.player.getBlockX() == next.getX() && client.player.getBlockZ() == next.getZ()
+                && passability().isFree(below) && !passability().isFree(below.down());
+    }
+
+    /** Jumps and places a block into the cell the player just left, once the feet are above it. */
+    private void pillarUp(BlockPos next) {
+        PlayerEntity player = client.player;
+        PlayerInventory inventory = player.getInventory();
+        int slot = findPillarBlockSlot(inventory);
+        if (slot < 0) {
+            logger.log("No block to pillar up with. Stuck.");
+            currentState = State.STUCK;
+            return;
+        }
+        if (getSelectedSlot(inventory) != slot) setSelectedSlot(inventory, slot);
+        client.options.forwardKey.setPressed(false);
+        player.setPitch(90.0F);
+        if (player.isOnGround()) {
+            player.jump();
+            return;
+        }
+        BlockPos support = next.down(2);
+        if (player.getY() >= next.getY()) {
+            BlockHitResult hit = new BlockHitResult(Vec3d.ofCenter(support).add(0, 0.5, 0), Direction.UP, support, false);
+            client.interactionManager.interactBlock(player, Hand.MAIN_HAND, hit);
+            player.swingHand(Hand.MAIN_HAND);
+        }
+    }
+
+    private void completePath() {
+        stopRefinement();
+        if (routeHop) {
+            // Only reached the next cluster, plan the next hop without counting it as a failed reposition.
+            routeHop = false;
+            logger.log("Reached route entrance. Planning next hop.");
+            currentState = State.REPOSITIONING;
+        } else {
+            currentState = State.MINING;
+        }
+    }
+
+    /**
+     * Applies block updates to the incremental planner and re-reads the path from the player's cell.
+     * @return true if movement can continue this tick.
+     */
+    private boolean repairPath() {
+        if (!client.player.isOnGround()) return true; // repair once the player stands in a cell again
+        BlockPos from = client.player.getBlockPos();
+        incrementalPlanner.moveStart(from);
+        incrementalPlanner.applyChanges();
+        PathfinderResult result = incrementalPlanner.compute(config.nodesPerTick);
+        repairInProgress = result == null;
+        if (result == null) return false; // not consistent yet, continue next tick
+
+        if (result.type != PathFindResultType.SUCCESS) {
+            logger.log("Path repair failed (" + result.type + "). Planning again.");
+            incrementalPlanner = null;
+            currentState = State.REPOSITIONING;
+            return false;
+        }
+        logger.log("Path repaired after " + incrementalPlanner.getNodeUpdates() + " node updates.");
+        if (result.path.isEmpty()) {
+            completePath();
+            return false;
+        }
+        this.standPos = result.standPos;
+        this.currentPath = smoothed(result.path);
+        this.pathIndex = 0;
+        this.closestToNode = Double.POSITIVE_INFINITY;
+        return true;
+    }
+
     private void handleMiningState() {
         if (targetBlock == null) {
             currentState = State.PATHFINDING;
@@ -469,7 +1132,8 @@ public class MiningLogic {
         }
 
         double distanceSquared = client.player.getEyePos().squaredDistanceTo(Vec3d.ofCenter(targetBlock));
-        boolean hasLineOfSight = hasLineOfSight(targetBlock);
+        Vec3d aim = aimPoint(targetBlock);
+        boolean hasLineOfSight = aim != null;
         
         if (distanceSquared > MAX_REACH_DISTANCE_SQUARED || !hasLineOfSight) {
             repositioningStuckTimer++;
@@ -492,15 +1156,16 @@ public class MiningLogic {
             return;
         }
 
-        smoothLookAt(targetBlock);
-        mineBlock(targetBlock);
+        smoothLookAt(aim);
+        mineBlock(targetBlock, VisibilityField.faceOf(targetBlock, aim));
 
         if (client.world.isAir(targetBlock)) {
+            recordBreakTime(targetBlock);
             miningStreak++;
             penaltyStreak = 0; // Reset penalty streak on successful mining
             int reward = (int) Math.min(5 * Math.pow(2, Math.min(miningStreak - 1, 30)), MAX_REWARD_CAP);
             totalRewards += reward;
-            trainingData.getRewardMemory().put(targetBlock, trainingData.getRewardMemory().getOrDefault(targetBlock, 0) + reward);
+            addReward(targetBlock, reward);
             AutoMinerClient.sendActionBarMessage(Text.literal("§d+" + reward + " §fRewards (Streak x" + miningStreak + ") §7| §eTotal: §f" + totalRewards));
             
             blocksToMine.remove(targetBlock);
@@ -508,53 +1173,53 @@ public class MiningLogic {
             BlockPos reachableSkippedBlock = findReachableSkippedBlock();
             if (reachableSkippedBlock != null) {
                 skippedBlocks.remove(reachableSkippedBlock);
-                blocksToMine.add(0, reachableSkippedBlock); 
+                blocksToMine.add(reachableSkippedBlock);
+                batchOrder.addFirst(reachableSkippedBlock);
             }
             
+            if (distanceFieldStale(targetBlock)) requestDistanceField();
             resetPlanner();
             currentState = State.PATHFINDING;
         }
     }
     
     private void resetPlanner() {
+        cancelPendingSearch();
+        incrementalPlanner = null;
+        repairInProgress = false;
+        routeHop = false;
+        partialPaths = 0;
         targetBlock = null;
         currentPath = null;
         currentlyBreaking = null;
     }
 
     private boolean generateNextLayerBasedOnPosition() {
-        if (currentMiningY < miningArea.getStartPos().getY()) {
-            logger.log("All layers mined. Finishing operation.");
-            return false;
-        }
-        logger.log("Generating plan for layer Y=" + currentMiningY);
         BlockPos playerPos = client.player.getBlockPos();
-        BlockPos start = miningArea.getStartPos();
-        BlockPos end = miningArea.getEndPos();
-        BlockPos corner1 = new BlockPos(start.getX(), currentMiningY, start.getZ());
-        BlockPos corner2 = new BlockPos(end.getX(), currentMiningY, start.getZ());
-        BlockPos corner3 = new BlockPos(start.getX(), currentMiningY, end.getZ());
-        BlockPos corner4 = new BlockPos(end.getX(), currentMiningY, end.getZ());
-        BlockPos closestCorner = corner1;
-        double minDistanceSq = playerPos.getSquaredDistance(closestCorner);
-        for (BlockPos corner : new BlockPos[]{corner2, corner3, corner4}) {
-            double distSq = playerPos.getSquaredDistance(corner);
-            if (distSq < minDistanceSq) {
-                minDistanceSq = distSq;
-                closestCorner = corner;
+        // Batches that are already cleared are skipped, so an empty one does not end the operation.
+        while (blocksToMine.isEmpty()) {
+            MiningStrategy.Batch batch = miningStrategy.next(playerPos);
+            if (batch == null) {
+                logger.log("All layers mined. Finishing operation.");
+                return false;
             }
+            logger.log("Generating plan for layers Y=" + batch.minY() + ".." + batch.maxY() + " (" + miningStrategy.getName() + ")");
+            List<BlockPos> blocks = batch.blocks().stream().filter(pos -> {
+                BlockState state = client.world.getBlockState(pos);
+                return !state.isAir() && !state.isOf(Blocks.BEDROCK) && !shouldIgnoreVegetationAt(pos);
+            }).collect(Collectors.toList());
+            this.blocksToMine.addAll(blocks);
+            this.batchOrder.addAll(blocks);
+            batchMinY = batch.minY();
+            batchMaxY = batch.maxY();
         }
-        logger.log("Closest corner for the new layer is: " + closestCorner.toShortString());
-        boolean reverseX = closestCorner.getX() == end.getX();
-        boolean reverseZ = closestCorner.getZ() == end.getZ();
-        List<BlockPos> newLayer = generateSnakeLayer(miningArea, currentMiningY, reverseX, reverseZ);
-
-        this.blocksToMine.addAll(newLayer.stream().filter(pos -> {
-            BlockState state = client.world.getBlockState(pos);
-            return !state.isAir() && !state.isOf(Blocks.BEDROCK) && !shouldIgnoreVegetationAt(pos);
-        }).collect(Collectors.toList()));
-        
-        currentMiningY--;
+        logger.log("Line of sight cache: " + sightCache.stats());
+        logger.log("Break time model: " + breakTimeStats());
+        route.clear();
+        blockedStops.clear();
+        coverExhausted = false;
+        requestConnectivity();
+        requestDistanceField();
         return !this.blocksToMine.isEmpty();
     }
     
@@ -564,8 +1229,15 @@ public class MiningLogic {
         // Apply penalty using the new penalty system
         applyPenalty(-10, "Stuck");
         
+        // A stop the miner got stuck on the way to would be planned again, one skipped target per round
+        if (coverStop != null) {
+            logger.log("Stuck on the way to stop " + coverStop.cell.toShortString() + ". Not planning it again this layer.");
+            blockedStops.add(coverStop.cell.asLong());
+        }
+
         // Skip current target and find a more accessible one
         skipCurrentTarget();
+        dropStops();
         
         // Reset all timers
         repositioningStuckTimer = 0;
@@ -574,9 +1246,7 @@ public class MiningLogic {
         // Try to find an easily accessible target to rebuild momentum
         BlockPos accessibleTarget = findMostAccessibleTarget();
         if (accessibleTarget != null && !accessibleTarget.equals(targetBlock)) {
-            // Prioritize the accessible target by moving it to the front
-            blocksToMine.remove(accessibleTarget);
-            blocksToMine.add(0, accessibleTarget);
+            preferredTarget = accessibleTarget;
             logger.log("Prioritizing accessible target: " + accessibleTarget.toShortString());
         }
         
@@ -588,34 +1258,13 @@ public class MiningLogic {
         BlockPos bestTarget = null;
         double bestScore = Double.MAX_VALUE;
         
-        // Look through nearby blocks to mine
-        for (BlockPos block : blocksToMine.subList(0, Math.min(blocksToMine.size(), 10))) {
+        // Look through the blocks around the player
+        for (BlockPos block : blocksToMine.within(client.player.getEyePos(), Math.sqrt(MAX_REACH_DISTANCE_SQUARED) + 1)) {
             double distance = playerPos.getSquaredDistance(block);
-            if (distance > 100) continue; // Skip very distant blocks
             
             // Check if it's easily accessible (good line of sight and close)
-            Vec3d playerEye = client.player.getEyePos();
-            Vec3d blockCenter = Vec3d.ofCenter(block);
-            
             if (distance <= MAX_REACH_DISTANCE_SQUARED) {
-                HitResult hitResult = client.world.raycast(new RaycastContext(
-                    playerEye, blockCenter,
-                    RaycastContext.ShapeType.COLLIDER,
-                    RaycastContext.FluidHandling.NONE,
-                    client.player
-                ));
-                
-                boolean goodLineOfSight = false;
-                if (hitResult.getType() == HitResult.Type.MISS) {
-                    goodLineOfSight = true;
-                } else if (hitResult.getType() == HitResult.Type.BLOCK) {
-                    BlockHitResult blockHit = (BlockHitResult) hitResult;
-                    if (blockHit.getBlockPos().equals(block)) {
-                        goodLineOfSight = true;
-                    }
-                }
-                
-                if (goodLineOfSight) {
+                if (hasLineOfSight(block)) {
                     double score = distance;
                     if (score < bestScore) {
                         bestScore = score;
@@ -641,8 +1290,7 @@ public class MiningLogic {
         
         // Apply penalty to training data for current target
         if (targetBlock != null) {
-            trainingData.getRewardMemory().put(targetBlock, 
-                trainingData.getRewardMemory().getOrDefault(targetBlock, 0) + penalty);
+            addReward(targetBlock, penalty);
         }
         
         // Show penalty message with streak info
@@ -652,6 +1300,14 @@ public class MiningLogic {
         logger.log("PENALTY: " + reason + ". Penalty: " + penalty + ", Streak: " + penaltyStreak + ", Total rewards: " + totalRewards);
     }
 
+    /** Adds to the learned reward of {@code pos} and keeps the overlay the planners read in step. */
+    private void addReward(BlockPos pos, int reward) {
+        trainingData.addReward(pos, reward);
+        if (rewardOverlay != null) rewardOverlay.set(pos, trainingData.getRewardMemory().get(pos));
+        // Cluster costs include the reward of the cells moves lead into.
+        if (clusterGraph != null) clusterGraph.blockChanged(pos);
+    }
+
     public void onFallDamage() {
         if (isMining()) {
             applyPenalty(-20, "Fall damage");
@@ -669,22 +1325,10 @@ public class MiningLogic {
         int fallbackNoDurabilitySlot = -1;
         int originalSlot = getSelectedSlot(inventory);
 
-        // --- NEUE KORREKTUR FÜR KOMPILIERUNGSFEHLER ---
-        RegistryEntry<Enchantment> efficiencyEnchantment = null;
-        Optional<Registry<Enchantment>> enchantmentRegistryOpt = client.world.getRegistryManager().getOptional(RegistryKeys.ENCHANTMENT);
-
-        if (enchantmentRegistryOpt.isPresent()) {
-            Registry<Enchantment> enchantmentRegistry = enchantmentRegistryOpt.get();
-            // Hole das Enchantment direkt
-            Enchantment efficiencyObject = enchantmentRegistry.get(Enchantments.EFFICIENCY);
-            if (efficiencyObject != null) {
-                // Verwende getEntry mit dem Enchantment-Objekt
-                efficiencyEnchantment = enchantmentRegistry.getEntry(efficiencyObject);
-            }
-        } else {
+        RegistryEntry<Enchantment> efficiencyEnchantment = BreakTimeEstimator.findEfficiency(client.world);
+        if (efficiencyEnchantment == null) {
             logger.log("WARNUNG: Verzauberungs-Registry konnte nicht gefunden werden.");
         }
-        // --- ENDE KORREKTUR ---
 
         for (int i = 0; i < 9; i++) {
             ItemStack stack = inventory.getStack(i);
@@ -702,23 +1346,11 @@ public class MiningLogic {
                 }
             }
 
-            if (!stack.isDamageable() && !stack.isSuitableFor(blockState)) {
+            if (!BreakTimeEstimator.isUsable(stack, blockState)) {
                 continue;
             }
 
-            if (stack.isDamageable() && (stack.getMaxDamage() - stack.getDamage()) < 100) {
-                 continue;
-            }
-
-            float speed = stack.getMiningSpeedMultiplier(blockState);
-            
-            // Füge den Effizienz-Bonus nur hinzu, wenn die Verzauberung gefunden wurde.
-            if (speed > 1.0f && efficiencyEnchantment != null) {
-                int efficiencyLevel = EnchantmentHelper.getLevel(efficiencyEnchantment, stack);
-                if (efficiencyLevel > 0) {
-                    speed += efficiencyLevel * efficiencyLevel + 1;
-                }
-            }
+            float speed = BreakTimeEstimator.miningSpeed(stack, blockState, efficiencyEnchantment);
 
             if (speed > bestSpeed) {
                 bestSpeed = speed;
@@ -754,8 +1386,29 @@ public class MiningLogic {
         return true;
     }
 
+    /**
+     * Moves skipped blocks back into the work list, except the ones the negative cache still knows to be unreachable.
+     * @return true if at least one block was moved back.
+     */
+    private boolean retrySkippedBlocks() {
+        int retried = 0;
+        for (Iterator<BlockPos> it = skippedBlocks.iterator(); it.hasNext(); ) {
+            BlockPos skipped = it.next();
+            if (unreachableTargets.contains(skipped)) continue;
+            blocksToMine.add(skipped);
+            batchOrder.add(skipped);
+            it.remove();
+            retried++;
+        }
+        if (!skippedBlocks.isEmpty()) {
+            logger.log("Retrying " + retried + " skipped blocks, " + skippedBlocks.size() + " are still unreachable.");
+        }
+        return retried > 0;
+    }
+
     private BlockPos findReachableSkippedBlock() {
         return skippedBlocks.stream()
+                .filter(skippedPos -> !unreachableTargets.contains(skippedPos))
                 .filter(skippedPos -> client.player.getEyePos().squaredDistanceTo(Vec3d.ofCenter(skippedPos)) <= MAX_REACH_DISTANCE_SQUARED)
                 .findFirst()
                 .orElse(null);
@@ -778,89 +1431,242 @@ public class MiningLogic {
     private void concludeOperation(String reason) {
         if (logger != null) {
             logger.log("Operation finished. Reason: " + reason + ". Final rewards: " + totalRewards);
+            logger.log("Line of sight cache: " + sightCache.stats());
+            logger.log("Break time model: " + breakTimeStats());
             logger.close();
             logger = null;
         }
         trainingData.save();
     }
 
+    /** @return the target set aside after getting stuck, if it is still there to mine; it comes before stops and routes. */
+    private BlockPos takePreferredTarget() {
+        BlockPos preferred = preferredTarget;
+        preferredTarget = null;
+        return preferred != null && blocksToMine.contains(preferred) && isMinable(preferred) ? preferred : null;
+    }
+
+    /**
+     * Picks the next block to mine among the next ones in the strategy's order, in route order (see
+     * {@link AutoMinerConfig#optimizeRoute}): the first one in reach with line of sight, otherwise the
+     * one with the shortest walk (or the first one a stand position can be found for). Mined blocks
+     * found on the way are dropped from the work list. Blocks the connectivity analysis calls isolated
+     * come last: its box may miss their only route, so they still get a real search, and only a failed
+     * search sets them aside.
+     */
     private BlockPos findNextTarget() {
-        if (blocksToMine.isEmpty()) return null;
-        
-        BlockPos playerPos = client.player.getBlockPos();
         Vec3d playerEye = client.player.getEyePos();
-        
-        // First, try to find a directly accessible target
-        for (int i = 0; i < Math.min(blocksToMine.size(), 5); i++) {
-            BlockPos candidate = blocksToMine.get(i);
-            
-            // Skip if block is already air or should be ignored
-            BlockState state = client.world.getBlockState(candidate);
-            if (state.isAir() || state.getBlock() instanceof FluidBlock || shouldIgnoreVegetationAt(candidate)) {
-                continue;
+        DistanceField field = usableDistanceField();
+        BlockPos closestByWalking = null;
+        double closestWalkingDistance = Double.POSITIVE_INFINITY;
+        BlockPos firstCandidate = null;
+        BlockPos isolatedCandidate = null;
+
+        while (!blocksToMine.isEmpty()) {
+            boolean dropped = false;
+            for (BlockPos candidate : upcomingTargets()) {
+                // Skip blocks that are already air or should be ignored
+                if (!isMinable(candidate)) {
+                    blocksToMine.remove(candidate);
+                    dropped = true;
+                    continue;
+                }
+
+                // Check if we can reach it directly from current position
+                double distance = playerEye.squaredDistanceTo(Vec3d.ofCenter(candidate));
+                if (distance <= MAX_REACH_DISTANCE_SQUARED && hasLineOfSight(candidate)) {
+                    return candidate;
+                }
+
+                // Isolated blocks are only planned for when no other candidate is left
+                if (isIsolated(candidate)) {
+                    if (isolatedCandidate == null) isolatedCandidate = candidate;
+                    continue;
+                }
+                if (firstCandidate == null) firstCandidate = candidate;
+
+                // With a distance field, rank the candidates by how far the miner has to walk
+                if (field != null) {
+                    double walkingDistance = field.distanceTo(StandRegion.compute(passability(), candidate, sightCache));
+                    if (walkingDistance < closestWalkingDistance) {
+                        closestWalkingDistance = walkingDistance;
+                        closestByWalking = candidate;
+                    }
+                    continue;
+                }
+
+                // Check if we can find a valid mining position for this target
+                if (canFindValidMiningPosition(candidate)) {
+                    return candidate;
+                }
             }
-            
-            // Check if we can reach it directly from current position
-            double distance = playerEye.squaredDistanceTo(Vec3d.ofCenter(candidate));
-            if (distance <= MAX_REACH_DISTANCE_SQUARED && hasLineOfSight(candidate)) {
-                return candidate;
+            // Look further out only if every candidate was dropped.
+            if (firstCandidate != null || !dropped) break;
+        }
+        if (closestByWalking != null) {
+            return closestByWalking;
+        }
+        return firstCandidate != null ? firstCandidate : isolatedCandidate;
+    }
+
+    /**
+     * The targets findNextTarget looks at: the rest of the current route, or a new route over the
+     * next blocks in the strategy's order once it is used up. Mined and dropped blocks leave the route here.
+     */
+    private List<BlockPos> upcomingTargets() {
+        if (!config.optimizeRoute) return nextInOrder(TARGET_CANDIDATES);
+        route.removeIf(pos -> !blocksToMine.contains(pos));
+        if (route.isEmpty()) {
+            finishRoute();
+            List<BlockPos> window = nextInOrder(TARGET_CANDIDATES);
+            if (window.isEmpty()) return window;
+            List<RouteOptimizer.Visit<BlockPos>> visits = new ArrayList<>(window.size());
+            for (BlockPos target : window) {
+                // A target with no stand cell yet is priced as walking to the block itself.
+                StandRegion region = StandRegion.compute(passability(), target, sightCache);
+                long[] cells = region.isEmpty() ? new long[] { target.asLong() } : region.getCells();
+                visits.add(new RouteOptimizer.Visit<>(target, cells, predictBreakTicks(target)));
             }
-            
-            // Check if we can find a valid mining position for this target
-            if (canFindValidMiningPosition(candidate)) {
-                return candidate;
+            RouteOptimizer.Route<BlockPos> planned = RouteOptimizer.optimize(client.player.getBlockPos(), visits);
+            route.addAll(planned.order());
+            startRoute(planned, "targets");
+            routeOverStops = false;
+        }
+        return new ArrayList<>(route);
+    }
+
+    /** Logs the prediction for a new route and starts timing it. */
+    private void startRoute(RouteOptimizer.Route<?> planned, String visits) {
+        logger.log(String.format("Planned a route over %d %s: %.0f ticks predicted (%.0f walking, %d breaking), %.0f walking in the strategy's order.",
+                planned.order().size(), visits, planned.totalTicks(), planned.walkTicks(), planned.breakTicks(), planned.givenWalkTicks()));
+        routeStartTick = tickCount;
+        routePredictedTicks = planned.totalTicks();
+        routeSize = planned.order().size();
+    }
+
+    /** Logs how long the route that was just used up took against its prediction. */
+    private void finishRoute() {
+        if (routeSize == 0) return;
+        logger.log(String.format("Route of %d visits took %d ticks, predicted %.0f.", routeSize, tickCount - routeStartTick, routePredictedTicks));
+        routeSize = 0;
+    }
+
+    /** Predicted ticks to break {@code pos} from where the player is now, 0 if it cannot be broken. */
+    private int predictBreakTicks(BlockPos pos) {
+        int ticks = breakEstimator().breakTicks(client.world, pos, client.world.getBlockState(pos), client.player.isOnGround(),
+                client.player.isSubmergedIn(FluidTags.WATER));
+        return Math.max(0, ticks);
+    }
+
+    /**
+     * Compares the ticks {@code pos} took, from the first hit until it turned to air, with the
+     * prediction made at the first hit. The cooldown after the previous break shows up here when the
+     * miner did not have to walk, where the estimate charges it after the block instead.
+     */
+    private void recordBreakTime(BlockPos pos) {
+        if (!pos.equals(currentlyBreaking)) return;
+        int actual = (int) (tickCount - breakStartTick);
+        predictedBreakTicks += breakPredictedTicks;
+        actualBreakTicks += actual;
+        breakTickError += Math.abs(actual - breakPredictedTicks);
+        timedBreaks++;
+        logger.log("Broke " + pos.toShortString() + " in " + actual + " ticks, predicted " + breakPredictedTicks + ".");
+    }
+
+    /** One line with predicted and actual break ticks, for the mining log. */
+    private String breakTimeStats() {
+        return String.format("%d blocks, %d ticks predicted, %d taken, mean error %.1f ticks", timedBreaks, predictedBreakTicks,
+                actualBreakTicks, timedBreaks == 0 ? 0.0 : (double) breakTickError / timedBreaks);
+    }
+
+    /**
+     * The next block to mine from the current stop, planning stops for the blocks around the player
+     * once the last one is done (see {@link StandPlanner}).
+     * @return the target, or null to pick one with {@link #findNextTarget()}.
+     */
+    private BlockPos nextCoveredTarget() {
+        if (!config.standCoverPlanning) return null;
+        while (true) {
+            if (coverStop == null) {
+                if (coverStops.isEmpty() && !coverExhausted) planStops();
+                coverStop = coverStops.poll();
+                if (coverStop == null) return null;
+            }
+            while (!coverStop.targets.isEmpty()) {
+                BlockPos target = coverStop.targets.remove(0);
+                if (blocksToMine.contains(target) && isMinable(target)) return target;
             }
+            coverStop = null;
         }
-        
-        // If no easily accessible targets, clean up the list and return first valid one
-        blocksToMine.removeIf(pos -> {
-            BlockState state = client.world.getBlockState(pos);
-            return state.isAir() || shouldIgnoreVegetationAt(pos);
-        });
-        return blocksToMine.isEmpty() ? null : blocksToMine.get(0);
+    }
+
+    private void planStops() {
+        List<BlockPos> batch = new ArrayList<>();
+        for (BlockPos pos : nextInOrder(COVER_TARGETS)) {
+            if (isMinable(pos)) batch.add(pos);
+        }
+        finishRoute();
+        ArrayDeque<StandPlanner.Stop> stops = StandPlanner.plan(passability(), sightCache, batch, client.player.getBlockPos(), blockedStops);
+        if (stops.isEmpty()) {
+            // Nothing left that one stop mines more of; the rest of the layer goes target by target.
+            coverExhausted = true;
+            return;
+        }
+        logger.log("Planned " + stops.size() + " stops for " + batch.size() + " targets.");
+        if (!config.optimizeRoute) {
+            coverStops.addAll(stops);
+            return;
+        }
+        // Reorder the stops by walking between their cells; the set cover only chose which cells.
+        List<RouteOptimizer.Visit<StandPlanner.Stop>> visits = new ArrayList<>(stops.size());
+        for (StandPlanner.Stop stop : stops) {
+            int breaking = 0;
+            for (BlockPos target : stop.targets) breaking += predictBreakTicks(target);
+            visits.add(new RouteOptimizer.Visit<>(stop, new long[] { stop.cell.asLong() }, breaking));
+        }
+        RouteOptimizer.Route<StandPlanner.Stop> planned = RouteOptimizer.optimize(client.player.getBlockPos(), visits);
+        coverStops.addAll(planned.order());
+        startRoute(planned, "stops");
+        routeOverStops = true;
+    }
+
+    /** The next {@code count} blocks of the work list in the strategy's order; blocks that were mined or skipped are dropped from it. */
+    private List<BlockPos> nextInOrder(int count) {
+        List<BlockPos> next = new ArrayList<>(count);
+        for (Iterator<BlockPos> it = batchOrder.iterator(); it.hasNext() && next.size() < count; ) {
+            BlockPos pos = it.next();
+            if (!blocksToMine.contains(pos)) it.remove();
+            else if (!next.contains(pos)) next.add(pos);
+        }
+        return next;
+    }
+
+    private void dropStops() {
+        coverStop = null;
+        coverStops.clear();
+        // A route whose stops were dropped is not timed.
+        if (routeOverStops) routeSize = 0;
+    }
+
+    private boolean isMinable(BlockPos pos) {
+        BlockState state = client.world.getBlockState(pos);
+        return !state.isAir() && !(state.getBlock() instanceof FluidBlock) && !shouldIgnoreVegetationAt(pos);
     }
     
     private boolean canFindValidMiningPosition(BlockPos target) {
-        // Quick check for potential mining positions around the target
-        for (int dx = -2; dx <= 2; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                for (int dz = -2; dz <= 2; dz++) {
-                    if (dx == 0 && dy == 0 && dz == 0) continue;
-                    
-                    BlockPos candidate = target.add(dx, dy, dz);
-                    Vec3d candidateEye = Vec3d.ofCenter(candidate).add(0, 1.62, 0);
-                    
-                    // Check distance
-                    if (candidateEye.squaredDistanceTo(Vec3d.ofCenter(target)) > MAX_REACH_DISTANCE_SQUARED) {
-                        continue;
-                    }
-                    
-                    // Check if position is safe
-                    if (!isSafeToStandOn(candidate)) continue;
-                    
-                    // Check line of sight from this position
-                    HitResult hitResult = client.world.raycast(new RaycastContext(
-                        candidateEye, Vec3d.ofCenter(target),
-                        RaycastContext.ShapeType.COLLIDER,
-                        RaycastContext.FluidHandling.NONE,
-                        client.player
-                    ));
-                    
-                    if (hitResult.getType() == HitResult.Type.MISS) {
-                        return true;
-                    } else if (hitResult.getType() == HitResult.Type.BLOCK) {
-                        BlockHitResult blockHit = (BlockHitResult) hitResult;
-                        if (blockHit.getBlockPos().equals(target)) {
-                            return true;
-                        }
-                    }
-                }
+        // Quick check for potential mining positions around the target, closest first
+        PassabilityCache cache = passability();
+        for (int offset : ReachOffsets.STAND) {
+            int x = target.getX() + ReachOffsets.x(offset), y = target.getY() + ReachOffsets.y(offset), z = target.getZ() + ReachOffsets.z(offset);
+            if (!cache.isSafeToStandOn(x, y, z)) continue;
+            if (sightCache.canSee(cache, x, y, z, target)) {
+                return true;
             }
         }
         return false;
     }
 
-    private boolean isIgnorableVegetation(BlockState state) {
+    static boolean isIgnorableVegetation(BlockState state) {
         // This method is used for pathfinding - check if vegetation can be moved through
         return state.isIn(BlockTags.FLOWERS) || state.isOf(Blocks.SHORT_GRASS) || state.isOf(Blocks.TALL_GRASS) || 
                state.isOf(Blocks.FERN) || state.isOf(Blocks.LARGE_FERN) ||
@@ -900,52 +1706,89 @@ public class MiningLogic {
         return false;
     }
 
-    private List<BlockPos> generateSnakeLayer(MiningArea area, int y, boolean reverseX, boolean reverseZ) {
-        List<BlockPos> layerBlocks = new ArrayList<>();
-        int minX = area.getStartPos().getX(), minZ = area.getStartPos().getZ();
-        int maxX = area.getEndPos().getX(), maxZ = area.getEndPos().getZ();
-        for (int i = 0; i <= (maxX - minX); i++) {
-            int x = reverseX ? maxX - i : minX + i;
-            List<BlockPos> row = new ArrayList<>();
-            boolean currentReverseZ = ((i % 2) == 0) ? reverseZ : !reverseZ;
-            if (currentReverseZ) {
-                for (int z = maxZ; z >= minZ; z--) row.add(new BlockPos(x, y, z));
-            } else {
-                for (int z = minZ; z <= maxZ; z++) row.add(new BlockPos(x, y, z));
+
+    /**
+     * Pure pursuit: steers towards the point {@link #LOOKAHEAD_DISTANCE} ahead along the path, so the
+     * miner runs through corners instead of stopping at every node. The lookahead never passes a
+     * node where the path changes height or needs a block broken; the miner sprints only while at
+     * least {@link #SPRINT_MIN_DISTANCE} of such free path is ahead and brakes before the rest.
+     */
+    private void followPath(BlockPos nextPos) {
+        PlayerEntity player = client.player;
+        Vec3d pos = player.getPos();
+        double fromX = pos.x, fromZ = pos.z;
+        double aimX = fromX, aimZ = fromZ;
+        double remaining = LOOKAHEAD_DISTANCE;
+        double runway = 0;
+        for (int index = pathIndex; index < currentPath.size(); index++) {
+            BlockPos node = currentPath.get(index);
+            double toX = node.getX() + 0.5, toZ = node.getZ() + 0.5;
+            double length = Math.sqrt((toX - fromX) * (toX - fromX) + (toZ - fromZ) * (toZ - fromZ));
+            if (remaining > 0) {
+                double t = length > remaining ? remaining / length : 1.0;
+                aimX = fromX + (toX - fromX) * t;
+                aimZ = fromZ + (toZ - fromZ) * t;
+                remaining -= length;
             }
-            layerBlocks.addAll(row);
+            runway += length;
+            if (!continuesLevel(index) || (remaining <= 0 && runway >= SPRINT_MIN_DISTANCE)) break;
+            fromX = toX;
+            fromZ = toZ;
         }
-        return layerBlocks;
-    }
 
-    private void moveTowards(BlockPos target) {
-        PlayerEntity player = client.player;
-        if (player == null) return;
-        client.options.forwardKey.setPressed(false);
         client.options.leftKey.setPressed(false);
         client.options.rightKey.setPressed(false);
         client.options.backKey.setPressed(false);
-        Vec3d playerPos = player.getPos();
-        Vec3d targetCenter = Vec3d.ofCenter(target);
-        double dx = targetCenter.x - playerPos.x;
-        double dz = targetCenter.z - playerPos.z;
-        float targetYaw = (float) (MathHelper.atan2(dz, dx) * (180.0 / Math.PI)) - 90.0F;
-        float playerYaw = MathHelper.wrapDegrees(player.getYaw());
-        float deltaYaw = MathHelper.wrapDegrees(targetYaw - playerYaw);
-        smoothLookAt(target);
-        if (target.getY() > player.getY() && player.isOnGround()) player.jump();
-        if (Math.abs(deltaYaw) > 20.0F) {
-            if (Math.abs(deltaYaw) < 90.0F) client.options.forwardKey.setPressed(true);
-            if (deltaYaw > 0) client.options.rightKey.setPressed(true);
-            else client.options.leftKey.setPressed(true);
-        } else {
-            client.options.forwardKey.setPressed(true);
+        float deltaYaw = 0;
+        double aimDistanceSq = (aimX - pos.x) * (aimX - pos.x) + (aimZ - pos.z) * (aimZ - pos.z);
+        if (aimDistanceSq > 0.0025) {
+            float targetYaw = (float) (MathHelper.atan2(aimZ - pos.z, aimX - pos.x) * (180.0 / Math.PI)) - 90.0F;
+            deltaYaw = MathHelper.wrapDegrees(targetYaw - player.getYaw());
+            player.setYaw(player.getYaw() + deltaYaw * 0.5F);
         }
+        player.setPitch(MathHelper.lerp(0.5F, player.getPitch(), 0.0F));
+        // Turn on the spot for sharp corners instead of running wide.
+        client.options.forwardKey.setPressed(Math.abs(deltaYaw) < 60.0F);
+        if (nextPos.getY() > player.getY() && player.isOnGround()) player.jump();
+        client.options.sprintKey.setPressed(config.allowSprint && runway >= SPRINT_MIN_DISTANCE
+                && Math.abs(deltaYaw) < 20.0F && nextPos.getY() == player.getBlockY());
     }
-    
+
+    /** True if the miner can run from path node {@code index} on to the next one without stopping: same level, nothing to break. */
+    private boolean continuesLevel(int index) {
+        if (index + 1 >= currentPath.size()) return false;
+        BlockPos node = currentPath.get(index), next = currentPath.get(index + 1);
+        return next.getY() == node.getY() && passability().isWalkable(next) && passability().isWalkable(next.up());
+    }
+
+    /** True once the player has passed path node {@code index}: close to it, or beyond it towards the next node. */
+    private boolean hasPassed(int index) {
+        BlockPos node = currentPath.get(index);
+        Vec3d pos = client.player.getPos();
+        double dy = pos.y - node.getY();
+        if (dy < 0 || dy >= 1.5) return false;
+        double dx = pos.x - (node.getX() + 0.5), dz = pos.z - (node.getZ() + 0.5);
+        if (!continuesLevel(index)) return dx * dx + dz * dz < 0.25;
+        double distanceSq = dx * dx + dz * dz;
+        if (distanceSq < PASS_RADIUS_SQUARED) return true;
+        BlockPos next = currentPath.get(index + 1);
+        return distanceSq < 1.0 && dx * (next.getX() - node.getX()) + dz * (next.getZ() - node.getZ()) > 0;
+    }
+
+    /** String-pulls a new path if enabled (see {@link AutoMinerConfig#smoothPaths}). */
+    private List<BlockPos> smoothed(List<BlockPos> path) {
+        if (!config.smoothPaths) return path;
+        List<BlockPos> smoothed = PathSmoother.smooth(passability(), client.player.getBlockPos(), path);
+        if (smoothed.size() < path.size()) logger.log("Path smoothed from " + path.size() + " to " + smoothed.size() + " nodes.");
+        return smoothed;
+    }
+
     private void smoothLookAt(BlockPos pos) {
+        smoothLookAt(Vec3d.ofCenter(pos));
+    }
+
+    private void smoothLookAt(Vec3d targetCenter) {
         PlayerEntity player = client.player;
-        Vec3d targetCenter = Vec3d.ofCenter(pos);
         double dx = targetCenter.x - player.getX(), dy = targetCenter.y - player.getEyeY(), dz = targetCenter.z - player.getZ();
         double horizontalDistance = Math.sqrt(dx * dx + dz * dz);
         float targetYaw = (float) Math.toDegrees(Math.atan2(dz, dx)) - 90.0F;
@@ -955,121 +1798,61 @@ public class MiningLogic {
     }
     
     private void mineBlock(BlockPos pos) {
+        mineBlock(pos, Direction.UP);
+    }
+
+    private void mineBlock(BlockPos pos, Direction face) {
         if (client.world.getBlockState(pos).isAir()) return;
-        if (!pos.equals(currentlyBreaking)) currentlyBreaking = pos;
-        client.interactionManager.updateBlockBreakingProgress(pos, Direction.UP);
+        if (!pos.equals(currentlyBreaking)) {
+            currentlyBreaking = pos;
+            breakStartTick = tickCount;
+            breakPredictedTicks = predictBreakTicks(pos);
+        }
+        client.interactionManager.updateBlockBreakingProgress(pos, face);
     }
     
+    /** Line of sight from the player's eye to a face of {@code target} (see {@link VisibilityField}). */
     private boolean hasLineOfSight(BlockPos target) {
-        Vec3d playerEye = client.player.getEyePos();
-        Vec3d targetCenter = Vec3d.ofCenter(target);
-        
-        // Use raycast to check if there are any blocks blocking the path
-        HitResult hitResult = client.world.raycast(new RaycastContext(
-            playerEye,
-            targetCenter,
-            RaycastContext.ShapeType.COLLIDER,
-            RaycastContext.FluidHandling.NONE,
-            client.player
-        ));
-        
-        // If we hit the target block or miss entirely, we have line of sight
-        if (hitResult.getType() == HitResult.Type.MISS) {
-            return true;
+        return aimPoint(target) != null;
+    }
+
+    /**
+     * Where to aim from the player's eye to hit {@code target}, read from the visibility field for
+     * blocks in reach.
+     * @return the point, or null if no face of the target is visible.
+     */
+    private Vec3d aimPoint(BlockPos target) {
+        Vec3d eye = client.player.getEyePos();
+        if (eye.squaredDistanceTo(Vec3d.ofCenter(target)) > MAX_REACH_DISTANCE_SQUARED) {
+            return VisibilityField.findAimPoint(passability(), eye, target);
         }
-        
-        if (hitResult.getType() == HitResult.Type.BLOCK) {
-            BlockHitResult blockHit = (BlockHitResult) hitResult;
-            BlockPos hitPos = blockHit.getBlockPos();
-            
-            // Check if we hit the target or if it's ignorable vegetation
-            if (hitPos.equals(target)) {
-                return true;
-            }
-            
-            // Allow line of sight through vegetation that can be broken
-            BlockState hitState = client.world.getBlockState(hitPos);
-            if (isIgnorableVegetation(hitState)) {
-                return true;
-            }
+        if (visibility == null || !visibility.getEye().equals(eye)) {
+            visibility = VisibilityField.compute(passability(), eye, Math.sqrt(MAX_REACH_DISTANCE_SQUARED));
         }
-        
-        return false;
+        return visibility.getAimPoint(target);
     }
     
-    private List<BlockPos> findGoodMiningPositions(BlockPos target) {
-        List<BlockPos> positions = new ArrayList<>();
-        Vec3d targetCenter = Vec3d.ofCenter(target);
-        
-        // Generate positions in a 3D radius around the target block
-        for (int dx = -3; dx <= 3; dx++) {
-            for (int dy = -2; dy <= 2; dy++) {
-                for (int dz = -3; dz <= 3; dz++) {
-                    if (dx == 0 && dy == 0 && dz == 0) continue; // Skip the target block itself
-                    
-                    BlockPos candidate = target.add(dx, dy, dz);
-                    Vec3d candidateEye = Vec3d.ofCenter(candidate).add(0, 1.62, 0); // Eye height
-                    
-                    // Check distance constraint
-                    double distanceSquared = candidateEye.squaredDistanceTo(targetCenter);
-                    if (distanceSquared > MAX_REACH_DISTANCE_SQUARED) continue;
-                    
-                    // Check if position is safe to stand on
-                    if (!isSafeToStandOn(candidate)) continue;
-                    
-                    // Check if we would have line of sight from this position
-                    HitResult hitResult = client.world.raycast(new RaycastContext(
-                        candidateEye,
-                        targetCenter,
-                        RaycastContext.ShapeType.COLLIDER,
-                        RaycastContext.FluidHandling.NONE,
-                        client.player
-                    ));
-                    
-                    boolean hasLineOfSight = false;
-                    if (hitResult.getType() == HitResult.Type.MISS) {
-                        hasLineOfSight = true;
-                    } else if (hitResult.getType() == HitResult.Type.BLOCK) {
-                        BlockHitResult blockHit = (BlockHitResult) hitResult;
-                        BlockPos hitPos = blockHit.getBlockPos();
-                        if (hitPos.equals(target) || isIgnorableVegetation(client.world.getBlockState(hitPos))) {
-                            hasLineOfSight = true;
-                        }
-                    }
-                    
-                    if (hasLineOfSight) {
-                        positions.add(candidate);
-                    }
-                }
-            }
-        }
-        
-        return positions;
+    /**
+     * Line of sight from {@code eye} to {@code target}: a ray reaches the center or a corner of one of
+     * the faces pointing towards the eye (see {@link VisibilityField#findAimPoint}).
+     */
+    static boolean canSee(PassabilityCache passability, Vec3d eye, BlockPos target) {
+        return VisibilityField.findAimPoint(passability, eye, target) != null;
     }
-    
+
     private boolean isSafeToStandOn(BlockPos pos) {
-        World world = client.world;
-        if (world == null) return false;
-        
-        // Check if there's solid ground below
-        BlockPos groundPos = pos.down();
-        if (!world.getBlockState(groundPos).isSolidBlock(world, groundPos)) {
-            return false;
-        }
-        
-        // Check if the position itself is passable (player feet)
-        BlockState feetState = world.getBlockState(pos);
-        if (!feetState.getCollisionShape(world, pos).isEmpty() && !isIgnorableVegetation(feetState)) {
-            return false;
-        }
-        
-        // Check if the position above is passable (player head)
-        BlockState headState = world.getBlockState(pos.up());
-        if (!headState.getCollisionShape(world, pos.up()).isEmpty() && !isIgnorableVegetation(headState)) {
-            return false;
+        return client.world != null && passability().isSafeToStandOn(pos);
+    }
+
+    /**
+     * Passability cache for the live client world, recreated when the world changes.
+     */
+    private PassabilityCache passability() {
+        if (passability == null || !passability.isFor(client.world)) {
+            passability = new PassabilityCache(client.world);
+            sightCache.clear();
         }
-        
-        return true;
+        return passability;
     }
 
     public boolean isMining() { return currentState != State.IDLE && currentState != State.FINISHED; }
@@ -1077,155 +1860,4 @@ public class MiningLogic {
     public MiningArea getCurrentArea() { return miningArea; }
     public List<BlockPos> getCurrentPath() { return currentPath; }
     public BlockPos getTargetBlock() { return targetBlock; }
-
-    private class Pathfinder {
-        private PriorityQueue<Node> openSet;
-        private Map<BlockPos, Node> allNodes;
-        private int iterations;
-
-        public void startPath(BlockPos start, BlockPos goal, boolean findStandPos) {
-            this.openSet = new PriorityQueue<>(Comparator.comparingDouble(n -> n.fCost));
-            this.allNodes = new HashMap<>();
-            Node startNode = new Node(start, null, 0, getHeuristic(start, goal));
-            this.openSet.add(startNode);
-            this.allNodes.put(start, startNode);
-            this.iterations = 0;
-        }
-
-        public PathfinderResult continuePath(BlockPos goal, boolean findStandPos) {
-            int nodesThisTick = 0;
-            while (!openSet.isEmpty() && nodesThisTick < config.nodesPerTick) {
-                if (iterations >= config.maxSearchNodes) {
-                    return new PathfinderResult(PathFindResultType.SEARCH_LIMIT_REACHED, null, null);
-                }
-                iterations++;
-                nodesThisTick++;
-
-                Node current = openSet.poll();
-
-                if (findStandPos) {
-                    Vec3d currentEyePos = Vec3d.ofCenter(current.pos).add(0, 1.62, 0);
-                    double distanceToTarget = currentEyePos.squaredDistanceTo(Vec3d.ofCenter(goal));
-                    
-                    if (isSafeToStandOn(current.pos) && distanceToTarget <= MAX_REACH_DISTANCE_SQUARED - 0.5) {
-                        // Validate line of sight from this position to the target
-                        HitResult hitResult = client.world.raycast(new RaycastContext(
-                            currentEyePos,
-                            Vec3d.ofCenter(goal),
-                            RaycastContext.ShapeType.COLLIDER,
-                            RaycastContext.FluidHandling.NONE,
-                            client.player
-                        ));
-                        
-                        boolean hasValidLineOfSight = false;
-                        if (hitResult.getType() == HitResult.Type.MISS) {
-                            hasValidLineOfSight = true;
-                        } else if (hitResult.getType() == HitResult.Type.BLOCK) {
-                            BlockHitResult blockHit = (BlockHitResult) hitResult;
-                            BlockPos hitPos = blockHit.getBlockPos();
-                            if (hitPos.equals(goal) || isIgnorableVegetation(client.world.getBlockState(hitPos))) {
-                                hasValidLineOfSight = true;
-                            }
-                        }
-                        
-                        if (hasValidLineOfSight) {
-                            return new PathfinderResult(PathFindResultType.SUCCESS, reconstructPath(current), current.pos);
-                        }
-                    }
-                } else {
-                    if (current.pos.equals(goal)) {
-                        return new PathfinderResult(PathFindResultType.SUCCESS, reconstructPath(current), current.pos);
-                    }
-                }
-                addNeighbors(current, goal);
-            }
-
-            if (openSet.isEmpty()) {
-                return new PathfinderResult(PathFindResultType.NO_PATH, null, null);
-            }
-
-            return null; 
-        }
-
-        private void addNeighbors(Node current, BlockPos end) {
-            BlockPos currentPos = current.pos;
-            for (Direction dir : Direction.values()) {
-                BlockPos neighborPos = currentPos.offset(dir);
-                if (Math.abs(neighborPos.getY() - client.player.getBlockY()) > 50) continue;
-
-                int deltaY = neighborPos.getY() - currentPos.getY();
-                if (deltaY > 1) continue;
-                if (deltaY == 1 && (!client.world.getBlockState(currentPos.up(2)).getCollisionShape(client.world, currentPos.up(2)).isEmpty() || client.world.getBlockState(neighborPos.down()).getCollisionShape(client.world, neighborPos.down()).isEmpty())) continue;
-                if (deltaY <= 0) {
-                    BlockPos groundPos = neighborPos.down();
-                    if (client.world.getBlockState(groundPos).getCollisionShape(client.world, groundPos).isEmpty()) {
-                        if (client.world.getBlockState(groundPos.down()).getCollisionShape(client.world, groundPos.down()).isEmpty()) continue;
-                    }
-                }
-                BlockState feetState = client.world.getBlockState(neighborPos);
-                BlockState headState = client.world.getBlockState(neighborPos.up());
-                boolean feetPassable = feetState.getCollisionShape(client.world, neighborPos).isEmpty();
-                boolean headPassable = headState.getCollisionShape(client.world, neighborPos.up()).isEmpty();
-                double cost = 1.0;
-                boolean isPossible = true;
-                if (!feetPassable && !isIgnorableVegetation(feetState)) {
-                    if (miningArea.isWithinArea(neighborPos)) cost += 10.0;
-                    else isPossible = false;
-                }
-                if (!headPassable && !isIgnorableVegetation(headState)) {
-                    if (miningArea.isWithinArea(neighborPos.up())) cost += 10.0;
-                    else isPossible = false;
-                }
-                if(isPossible) addNode(current, neighborPos, cost, end);
-            }
-        }
-
-        private void addNode(Node parent, BlockPos pos, double cost, BlockPos end) {
-            int rewardModifier = trainingData.getRewardMemory().getOrDefault(pos, 0);
-            double modifiedCost = cost - (rewardModifier * 0.1);
-            if (modifiedCost <= 0) modifiedCost = 0.1;
-
-            double tentativeGCost = parent.gCost + modifiedCost;
-            Node node = allNodes.get(pos);
-            if (node == null || tentativeGCost < node.gCost) {
-                if (node == null) {
-                    node = new Node(pos);
-                    allNodes.put(pos, node);
-                }
-                node.parent = parent;
-                node.gCost = tentativeGCost;
-                node.hCost = getHeuristic(pos, end);
-                node.fCost = node.gCost + node.hCost;
-                if (!openSet.contains(node)) openSet.add(node);
-            }
-        }
-        
-        public boolean isPassable(BlockPos pos) {
-            World world = client.world;
-            return world != null && world.getBlockState(pos).getCollisionShape(world, pos).isEmpty() && world.getBlockState(pos.up()).getCollisionShape(world, pos.up()).isEmpty();
-        }
-
-        private double getHeuristic(BlockPos from, BlockPos to) {
-            return Math.sqrt(from.getSquaredDistance(to));
-        }
-
-        private List<BlockPos> reconstructPath(Node endNode) {
-            List<BlockPos> path = new ArrayList<>();
-            Node current = endNode;
-            while (current != null && current.parent != null) {
-                path.add(current.pos);
-                current = current.parent;
-            }
-            Collections.reverse(path);
-            return path;
-        }
-
-        private class Node {
-            BlockPos pos; Node parent; double gCost, hCost, fCost;
-            Node(BlockPos pos) { this.pos = pos; }
-            Node(BlockPos pos, Node parent, double gCost, double hCost) { this.pos = pos; this.parent = parent; this.gCost = gCost; this.hCost = hCost; this.fCost = gCost + hCost; }
-            @Override public boolean equals(Object o) { if (this == o) return true; if (o == null || getClass() != o.getClass()) return false; return Objects.equals(pos, ((Node) o).pos); }
-            @Override public int hashCode() { return Objects.hash(pos); }
-        }
-    }
 }
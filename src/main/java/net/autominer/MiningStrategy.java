@@ -0,0 +1,160 @@
+package net.autominer;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Splits the area into batches and decides the order its blocks are mined in. The miner asks for
+ * the next batch once the previous one is cleared and builds its connectivity and distance field
+ * over the batch's layers. Inside a batch it keeps the strategy's order: target choice, stand
+ * planning and routes all look at the next blocks of the batch in that order.
+ * <p>
+ * The cost model walks the whole order with a simulated miner that only moves when the next block
+ * is out of reach from where it stands, and then steps onto that block's cell. It predicts the
+ * walking in walked blocks like the {@link MovementModel}: one per block sideways, a one-block drop
+ * per block down, and a jump (or a pillared block, if the miner may pillar) per block up. Breaking
+ * takes the same time whatever the order, so it is left out. Only the first {@link #SIMULATED_BLOCKS}
+ * blocks are walked and the rest is extrapolated; batches compute their blocks when they are read,
+ * so a large area costs no more to estimate than a small one. A strategy keeps its progress, so every
+ * mining operation creates its own with {@link #create}. Only used on the client thread.
+ */
+public abstract class MiningStrategy {
+    static final double STEP_DOWN = MovementModel.FALL_TICKS[1] / MovementModel.WALK_TICKS;
+    static final double JUMP_UP = MovementModel.JUMP_TICKS / MovementModel.WALK_TICKS;
+    static final double PILLAR_UP = (MovementModel.JUMP_TICKS + MovementModel.PLACE_BLOCK_TICKS) / MovementModel.WALK_TICKS
+            + MovementModel.PLACED_BLOCK_PENALTY;
+    // Blocks the cost model walks at most; the cost of larger areas is extrapolated from them.
+    static final int SIMULATED_BLOCKS = 1 << 16;
+
+    /** Blocks to mine together in the planned order, and the layers they span. */
+    public record Batch(List<BlockPos> blocks, int minY, int maxY) {
+    }
+
+    /** The blocks of a batch, each computed from its place in the order when it is read. */
+    protected static List<BlockPos> blocks(int size, IntFunction<BlockPos> blockAt) {
+        return new Blocks(size, blockAt);
+    }
+
+    private static class Blocks extends AbstractList<BlockPos> implements RandomAccess {
+        private final int size;
+        private final IntFunction<BlockPos> blockAt;
+
+        Blocks(int size, IntFunction<BlockPos> blockAt) {
+            this.size = size;
+            this.blockAt = blockAt;
+        }
+
+        @Override
+        public BlockPos get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+            return blockAt.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    protected final MiningArea area;
+    protected final int minX, minY, minZ, maxX, maxY, maxZ;
+
+    protected MiningStrategy(MiningArea area) {
+        this.area = area;
+        this.minX = area.getStartPos().getX();
+        this.minY = area.getStartPos().getY();
+        this.minZ = area.getStartPos().getZ();
+        this.maxX = area.getEndPos().getX();
+        this.maxY = area.getEndPos().getY();
+        this.maxZ = area.getEndPos().getZ();
+    }
+
+    /**
+     * Creates the strategy for {@code type}; {@link MiningStrategyType#AUTO} picks the one whose cost
+     * model predicts the least walking from {@code player}.
+     * @param pillar whether the miner may pillar up, which makes climbing cheaper.
+     */
+    public static MiningStrategy create(MiningStrategyType type, MiningArea area, BlockPos player, boolean pillar) {
+        if (type != MiningStrategyType.AUTO) return of(type, area);
+        MiningStrategy best = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (MiningStrategyType candidate : MiningStrategyType.values()) {
+            if (candidate == MiningStrategyType.AUTO) continue;
+            MiningStrategy strategy = of(candidate, area);
+            double cost = strategy.estimateCost(player, pillar);
+            if (cost < bestCost) {
+                best = strategy;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    private static MiningStrategy of(MiningStrategyType type, MiningArea area) {
+        return switch (type) {
+            case LAYER -> new LayerSweepStrategy(area, 1);
+            case AUTO, THREE_LAYER -> new LayerSweepStrategy(area, 3);
+            case SPIRAL -> new SpiralStrategy(area);
+            case COLUMN -> new ColumnStrategy(area);
+        };
+    }
+
+    /** @return the next batch, or null once the whole area has been handed out. */
+    @Nullable
+    public abstract Batch next(BlockPos player);
+
+    public abstract String getName();
+
+    /** A strategy of the same kind over the same area that has not handed out anything yet. */
+    protected abstract MiningStrategy fresh();
+
+    /**
+     * Predicted walking, in blocks, to mine the whole area in this strategy's order starting from
+     * {@code player}. Runs on a fresh copy, so this strategy's progress is left alone.
+     */
+    public double estimateCost(BlockPos player, boolean pillar) {
+        double climb = pillar ? PILLAR_UP : JUMP_UP;
+        MiningStrategy probe = fresh();
+        int x = player.getX(), y = player.getY(), z = player.getZ();
+        double cost = 0;
+        long simulated = 0;
+        Batch batch;
+        while (simulated < SIMULATED_BLOCKS && (batch = probe.next(new BlockPos(x, y, z))) != null) {
+            List<BlockPos> blocks = batch.blocks();
+            for (int i = 0; i < blocks.size() && simulated < SIMULATED_BLOCKS; i++) {
+                BlockPos block = blocks.get(i);
+                simulated++;
+                if (inReach(x, y, z, block)) continue;
+                double dx = block.getX() - x, dz = block.getZ() - z;
+                int dy = block.getY() - y;
+                cost += Math.sqrt(dx * dx + dz * dz) + (dy < 0 ? -dy * STEP_DOWN : dy * climb);
+                x = block.getX();
+                y = block.getY();
+                z = block.getZ();
+            }
+        }
+        long volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        return simulated == 0 ? 0 : cost * volume / simulated;
+    }
+
+    /** True if {@code block} can be mined standing in the cell {@code x, y, z}, by the reach test of {@link StandRegion}. */
+    private static boolean inReach(int x, int y, int z, BlockPos block) {
+        double dx = x - block.getX(), dy = y + StandRegion.EYE_HEIGHT - block.getY(), dz = z - block.getZ();
+        return dx * dx + dy * dy + dz * dz <= MiningLogic.MAX_REACH_DISTANCE_SQUARED - 0.5;
+    }
+
+    /** True if the corner at the high X end is closer to {@code player} than the one at the low end. */
+    protected boolean nearMaxX(BlockPos player) {
+        return Math.abs(player.getX() - maxX) < Math.abs(player.getX() - minX);
+    }
+
+    protected boolean nearMaxZ(BlockPos player) {
+        return Math.abs(player.getZ() - maxZ) < Math.abs(player.getZ() - minZ);
+    }
+}
@@ -0,0 +1,10 @@
+package net.autominer;
+
+/** How the area is split into batches and in which order they are mined (see {@link AutoMinerConfig#miningStrategy}). */
+public enum MiningStrategyType {
+    AUTO,           // whichever of the strategies below predicts the least walking for the area
+    LAYER,          // one layer at a time from the top, in rows from the nearest corner
+    THREE_LAYER,    // three layers per pass from the top, each column of the pass top down
+    SPIRAL,         // one layer at a time, in rings out from the center
+    COLUMN          // the full height of one reach-wide column before moving on to the next
+}
@@ -0,0 +1,355 @@
+package net.autominer;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockView;
+
+/**
+ * The moves the miner can make from one standing cell to the next and what each move costs.
+ * Shared by the A* {@link Pathfinder} and the {@link IncrementalPlanner}, so both plan over the same graph.
+ * <p>
+ * Costs are in walking steps: 1.0 is the time it takes to walk one block. Besides the six block faces
+ * (walking or tunnelling sideways, digging down, pillaring up) the miner can walk diagonally, step up
+ * onto a ledge and walk off an edge and fall up to {@link #MAX_DROP} blocks. Every move has a fixed
+ * offset, so a move's index is enough to get from one cell to the next.
+ */
+public class MovementModel {
+    // What a move does; the first six moves are the block faces in Direction order.
+    static final int DIG_DOWN = 0;   // break the block below and drop onto the one under it
+    static final int PILLAR = 1;     // jump and place a block below
+    static final int WALK = 2;       // one block sideways, breaking feet and head cells if needed
+    static final int DIAGONAL = 3;   // one block diagonally through free space
+    static final int ASCEND = 4;     // jump onto a ledge one block higher
+    static final int DESCEND = 5;    // walk off an edge and fall onto the block below
+
+    // Falls of more than 3 blocks cost health; drops are limited to this height no matter the budget.
+    static final int SAFE_DROP = 3;
+    static final int MAX_DROP = 6;
+
+    static final int FACE_MOVES = 6;
+    static final int MOVES = FACE_MOVES + 4 + 4 + 4 * MAX_DROP;
+    static final int[] MOVE_X = new int[MOVES];
+    static final int[] MOVE_Y = new int[MOVES];
+    static final int[] MOVE_Z = new int[MOVES];
+    static final int[] MOVE_KIND = new int[MOVES];
+
+    // A changed block can alter the outgoing moves of cells in this box around it:
+    // moves read up to two blocks above the cell and down to the floor below the deepest drop.
+    static final int INFLUENCE_HORIZONTAL = 1;
+    static final int INFLUENCE_BELOW = 2;
+    static final int INFLUENCE_ABOVE = MAX_DROP + 1;
+
+    static final double IMPOSSIBLE = -1;
+    // Cost of breaking a block when no break-time estimate is available.
+    static final double FLAT_BREAK_COST = 10.0;
+
+    // Ticks per block at walking (4.317 m/s) and sprinting (5.612 m/s) speed.
+    static final double WALK_TICKS = 20 / 4.317;
+    static final double SPRINT_TICKS = 20 / 5.612;
+    // From the jump until the feet land one block higher.
+    static final int JUMP_TICKS = 9;
+    // Right-click cooldown between two placed blocks.
+    static final int PLACE_BLOCK_TICKS = 4;
+    // Extra cost for using up a block and for each point of fall damage, so both are only taken when they save time.
+    static final double PLACED_BLOCK_PENALTY = 1.0;
+    static final double FALL_DAMAGE_PENALTY = 4.0;
+    // Ticks to fall n blocks, from vanilla gravity (0.08 per tick, 2% drag).
+    static final int[] FALL_TICKS = new int[MAX_DROP + 1];
+    // Moves never lead further than this above or below the anchor height.
+    static final int MAX_HEIGHT_CHANGE = 50;
+
+    static {
+        Direction[] directions = Direction.values();
+        for (int i = 0; i < FACE_MOVES; i++) {
+            MOVE_X[i] = directions[i].getOffsetX();
+            MOVE_Y[i] = directions[i].getOffsetY();
+            MOVE_Z[i] = directions[i].getOffsetZ();
+            MOVE_KIND[i] = MOVE_Y[i] < 0 ? DIG_DOWN : MOVE_Y[i] > 0 ? PILLAR : WALK;
+        }
+        int move = FACE_MOVES;
+        for (int dx = -1; dx <= 1; dx += 2) {
+            for (int dz = -1; dz <= 1; dz += 2) {
+                MOVE_X[move] = dx;
+                MOVE_Z[move] = dz;
+                MOVE_KIND[move++] = DIAGONAL;
+            }
+        }
+        for (int i = 0; i < FACE_MOVES; i++) {
+            if (MOVE_KIND[i] != WALK) continue;
+            MOVE_X[move] = MOVE_X[i];
+            MOVE_Y[move] = 1;
+            MOVE_Z[move] = MOVE_Z[i];
+            MOVE_KIND[move++] = ASCEND;
+            for (int drop = 1; drop <= MAX_DROP; drop++) {
+                MOVE_X[move] = MOVE_X[i];
+                MOVE_Y[move] = -drop;
+                MOVE_Z[move] = MOVE_Z[i];
+                MOVE_KIND[move++] = DESCEND;
+            }
+        }
+
+        double velocity = 0, fallen = 0;
+        int ticks = 0;
+        for (int blocks = 1; blocks <= MAX_DROP; blocks++) {
+            while (fallen < blocks) {
+                velocity = (velocity - 0.08) * 0.98;
+                fallen -= velocity;
+                ticks++;
+            }
+            FALL_TICKS[blocks] = ticks;
+        }
+    }
+
+    /** What the player can do besides walking and breaking blocks, captured on the client thread. */
+    public static class Abilities {
+        public static final Abilities WALK_ONLY = new Abilities(false, SAFE_DROP, false);
+
+        final boolean sprint;
+        final int maxDrop;
+        final boolean pillar;
+
+        /**
+         * @param sprint whether free walking moves are charged at sprint speed.
+         * @param maxDrop highest drop allowed, at most {@link #MAX_DROP}.
+         * @param pillar whether a placeable block is in the hotbar.
+         */
+        public Abilities(boolean sprint, int maxDrop, boolean pillar) {
+            this.sprint = sprint;
+            this.maxDrop = Math.min(maxDrop, MAX_DROP);
+            this.pillar = pillar;
+        }
+    }
+
+    /**
+     * Everything besides the blocks that the cost of a move depends on, for caches of costs that
+     * outlive one search. Rewards and break times are compared by identity: the miner keeps one of
+     * each while they stay valid.
+     */
+    public static class CostParameters {
+        private final MiningArea area;
+        private final RewardOverlay rewards;
+        private final int anchorY;
+        private final BreakTimeEstimator breakTimes;
+        private final boolean sprint;
+        private final int maxDrop;
+        private final boolean pillar;
+
+        CostParameters(MovementModel movement) {
+            this.area = movement.area;
+            this.rewards = movement.rewards;
+            this.anchorY = movement.anchorY;
+            this.breakTimes = movement.breakTimes;
+            this.sprint = movement.abilities.sprint;
+            this.maxDrop = movement.abilities.maxDrop;
+            this.pillar = movement.abilities.pillar;
+        }
+
+        /**
+         * True if both price every move that ends between {@code minY} and {@code maxY} the same. The
+         * anchors only have to match where the height limit around one of them cuts off moves.
+         */
+        public boolean sameCosts(CostParameters other, int minY, int maxY) {
+            return area == other.area && rewards == other.rewards && breakTimes == other.breakTimes
+                    && sprint == other.sprint && maxDrop == other.maxDrop && pillar == other.pillar
+                    && (anchorY == other.anchorY || allowsHeights(minY, maxY) && other.allowsHeights(minY, maxY));
+        }
+
+        private boolean allowsHeights(int minY, int maxY) {
+            return minY >= anchorY - MAX_HEIGHT_CHANGE && maxY <= anchorY + MAX_HEIGHT_CHANGE;
+        }
+    }
+
+    private PassabilityCache passability;
+    private final MiningArea area;
+    private final RewardOverlay rewards;
+    private final int anchorY;
+    private final BreakTimeEstimator breakTimes;
+    private final Abilities abilities;
+    private final double minCostPerBlock;
+    private final CostParameters costParameters;
+    // Cursor for world lookups, so probing a move allocates nothing.
+    private final BlockPos.Mutable breakPos = new BlockPos.Mutable();
+
+    /**
+     * @param rewards learned cost factors, or null to plan without them.
+     * @param breakTimes predicted break times for the current tools, or null to charge a flat cost per broken block.
+     */
+    public MovementModel(PassabilityCache passability, MiningArea area, @Nullable RewardOverlay rewards, int anchorY,
+                         @Nullable BreakTimeEstimator breakTimes, Abilities abilities) {
+        this.passability = passability;
+        this.area = area;
+        this.rewards = rewards;
+        this.anchorY = anchorY;
+        this.breakTimes = breakTimes;
+        this.abilities = abilities;
+        this.minCostPerBlock = computeMinCostPerBlock();
+        this.costParameters = new CostParameters(this);
+    }
+
+    /** @return the move with the offset dx, dy, dz, or -1 if there is none. */
+    static int moveBetween(int dx, int dy, int dz) {
+        for (int move = 0; move < MOVES; move++) {
+            if (MOVE_X[move] == dx && MOVE_Y[move] == dy && MOVE_Z[move] == dz) return move;
+        }
+        return -1;
+    }
+
+    /**
+     * Lower bound on the cost of any move per block of straight-line distance it covers. Scaling a
+     * straight-line distance by it gives a heuristic that never overestimates, rewards included.
+     */
+    public double minCostPerBlock() {
+        return minCostPerBlock;
+    }
+
+    public CostParameters costParameters() {
+        return costParameters;
+    }
+
+    private double computeMinCostPerBlock() {
+        // Walking and diagonal moves cover their distance at step cost; breaking blocks only adds to any move.
+        double min = stepCost();
+        min = Math.min(min, JUMP_TICKS / WALK_TICKS / Math.sqrt(2));
+        min = Math.min(min, FALL_TICKS[1] / WALK_TICKS);
+        for (int drop = 1; drop <= abilities.maxDrop; drop++) {
+            double cost = (WALK_TICKS + FALL_TICKS[drop]) / WALK_TICKS + Math.max(0, drop - SAFE_DROP) * FALL_DAMAGE_PENALTY;
+            min = Math.min(min, cost / Math.sqrt(1 + drop * drop));
+        }
+        return rewards == null ? min : min * RewardOverlay.MIN_FACTOR;
+    }
+
+    public PassabilityCache getPassability() {
+        return passability;
+    }
+
+    /** Switches to another view of the same world, e.g. from a snapshot to the live world. */
+    public void setPassability(PassabilityCache passability) {
+        this.passability = passability;
+    }
+
+    /** Cost of breaking the block at x, y, z on the way; only blocks inside the area may be broken. */
+    private double breakCost(int x, int y, int z) {
+        if (!area.isWithinArea(x, y, z)) return IMPOSSIBLE;
+        if (breakTimes == null) return FLAT_BREAK_COST;
+        BlockView world = passability.getWorld();
+        breakPos.set(x, y, z);
+        return breakTimes.breakCost(world, breakPos, world.getBlockState(breakPos));
+    }
+
+    /** True if taking {@code move} from x, y, z means breaking a block on the way. */
+    public boolean requiresBreaking(int x, int y, int z, int move) {
+        int nx = x + MOVE_X[move], ny = y + MOVE_Y[move], nz = z + MOVE_Z[move];
+        switch (MOVE_KIND[move]) {
+            case DIG_DOWN: return !passability.isWalkable(nx, ny, nz);
+            case ASCEND: return !passability.isWalkable(x, y + 2, z) || !isOpen(nx, ny, nz);
+            case PILLAR:
+            case WALK: return !isOpen(nx, ny, nz);
+            default: return false;
+        }
+    }
+
+    /**
+     * Cost of taking {@code move} from the cell at x, y, z, including breaking blocks in the way
+     * and the learned reward of the destination.
+     * @return the cost, or {@link #IMPOSSIBLE}.
+     */
+    public double cost(int x, int y, int z, int move) {
+        int nx = x + MOVE_X[move], ny = y + MOVE_Y[move], nz = z + MOVE_Z[move];
+        if (Math.abs(ny - anchorY) > MAX_HEIGHT_CHANGE) return IMPOSSIBLE;
+
+        double cost;
+        switch (MOVE_KIND[move]) {
+            case WALK: cost = walkCost(nx, ny, nz); break;
+            case DIAGONAL: cost = diagonalCost(x, y, z, nx, nz); break;
+            case ASCEND: cost = ascendCost(x, y, z, nx, ny, nz); break;
+            case DESCEND: cost = descendCost(x, y, nx, ny, nz); break;
+            case DIG_DOWN: cost = digDownCost(nx, ny, nz); break;
+            default: cost = pillarCost(x, y, z); break;
+        }
+        if (cost == IMPOSSIBLE || rewards == null) return cost;
+        return cost * rewards.factor(nx, ny, nz);
+    }
+
+    private double walkCost(int nx, int ny, int nz) {
+        // Without ground the miner would fall; falling is a descend move.
+        if (passability.isFree(nx, ny - 1, nz)) return IMPOSSIBLE;
+        double breakCost = clearCost(nx, ny, nz);
+        if (breakCost == IMPOSSIBLE) return IMPOSSIBLE;
+        return breakCost == 0 ? stepCost() : 1.0 + breakCost;
+    }
+
+    private double diagonalCost(int x, int y, int z, int nx, int nz) {
+        if (passability.isFree(nx, y - 1, nz)) return IMPOSSIBLE;
+        // Both cells beside the diagonal must be open too, or the player's hitbox catches on the corner.
+        if (!isOpen(nx, y, nz) || !isOpen(nx, y, z) || !isOpen(x, y, nz)) return IMPOSSIBLE;
+        return Math.sqrt(2) * stepCost();
+    }
+
+    private double ascendCost(int x, int y, int z, int nx, int ny, int nz) {
+        if (passability.isFree(nx, y, nz)) return IMPOSSIBLE;
+        double cost = JUMP_TICKS / WALK_TICKS;
+        if (!passability.isWalkable(x, y + 2, z)) {
+            double breakCost = breakCost(x, y + 2, z);
+            if (breakCost == IMPOSSIBLE) return IMPOSSIBLE;
+            cost += breakCost;
+        }
+        double breakCost = clearCost(nx, ny, nz);
+        return breakCost == IMPOSSIBLE ? IMPOSSIBLE : cost + breakCost;
+    }
+
+    private double descendCost(int x, int y, int nx, int ny, int nz) {
+        int drop = y - ny;
+        if (drop > abilities.maxDrop) return IMPOSSIBLE;
+        // Walk off through open space, fall through open cells and land on ground exactly {@code drop} blocks down.
+        for (int cellY = y + 1; cellY >= ny; cellY--) {
+            if (!passability.isWalkable(nx, cellY, nz)) return IMPOSSIBLE;
+        }
+        if (passability.isFree(nx, ny - 1, nz)) return IMPOSSIBLE;
+        double cost = (WALK_TICKS + FALL_TICKS[drop]) / WALK_TICKS;
+        return cost + Math.max(0, drop - SAFE_DROP) * FALL_DAMAGE_PENALTY;
+    }
+
+    private double digDownCost(int nx, int ny, int nz) {
+        // Only a solid block can be dug through, and there has to be ground right below it.
+        if (passability.isWalkable(nx, ny, nz) || passability.isFree(nx, ny - 1, nz)) return IMPOSSIBLE;
+        double breakCost = breakCost(nx, ny, nz);
+        return breakCost == IMPOSSIBLE ? IMPOSSIBLE : breakCost + FALL_TICKS[1] / WALK_TICKS;
+    }
+
+    private double pillarCost(int x, int y, int z) {
+        if (!abilities.pillar || !passability.isFree(x, y, z)) return IMPOSSIBLE;
+        double cost = (JUMP_TICKS + PLACE_BLOCK_TICKS) / WALK_TICKS + PLACED_BLOCK_PENALTY;
+        if (!passability.isWalkable(x, y + 2, z)) {
+            double breakCost = breakCost(x, y + 2, z);
+            if (breakCost == IMPOSSIBLE) return IMPOSSIBLE;
+            cost += breakCost;
+        }
+        return cost;
+    }
+
+    /** Cost of breaking whatever blocks the feet and head cells of x, y, z, 0 if both are open. */
+    private double clearCost(int x, int y, int z) {
+        double cost = 0;
+        if (!passability.isWalkable(x, y, z)) {
+            double breakCost = breakCost(x, y, z);
+            if (breakCost == IMPOSSIBLE) return IMPOSSIBLE;
+            cost += breakCost;
+        }
+        if (!passability.isWalkable(x, y + 1, z)) {
+            double breakCost = breakCost(x, y + 1, z);
+            if (breakCost == IMPOSSIBLE) return IMPOSSIBLE;
+            cost += breakCost;
+        }
+        return cost;
+    }
+
+    private boolean isOpen(int x, int y, int z) {
+        return passability.isWalkable(x, y, z) && passability.isWalkable(x, y + 1, z);
+    }
+
+    private double stepCost() {
+        return abilities.sprint ? SPRINT_TICKS / WALK_TICKS : 1.0;
+    }
+}
@@ -0,0 +1,188 @@
+package net.autominer;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+
+/**
+ * Caches how the pathfinder sees each block as bits per 16x16x16 section, so hot loops test a bit
+ * instead of resolving a VoxelShape. Sections are classified lazily on first access and
+ * dropped again by {@link #invalidate(BlockPos)} when a block update arrives.
+ * <p>
+ * An instance is not thread-safe; the client thread and the planner thread each use their own.
+ */
+public class PassabilityCache {
+    // Bit planes, each 64 longs (4096 bits) per section.
+    static final int FREE = 0;        // collision shape is empty
+    static final int SOLID = 1;       // isSolidBlock, i.e. safe ground to stand on
+    static final int VEGETATION = 2;  // ignorable vegetation, passable for the miner
+    static final int FULL_CUBE = 3;   // collision shape is a full cube, blocks every ray
+    static final int PLANES = 4;
+    static final int SECTION_LONGS = PLANES * 64;
+
+    static final long[] EMPTY_SECTION = new long[SECTION_LONGS];
+    static final long[] BLOCKED_SECTION = new long[SECTION_LONGS];
+
+    static {
+        Arrays.fill(EMPTY_SECTION, FREE * 64, FREE * 64 + 64, -1L);
+        Arrays.fill(BLOCKED_SECTION, FULL_CUBE * 64, FULL_CUBE * 64 + 64, -1L);
+    }
+
+    private final BlockView world;
+    private final LongIndexMap sectionIndex = new LongIndexMap(256);
+    private long[][] sections = new long[256][];
+    private int sectionCount;
+
+    // Most lookups hit the same section as the previous one.
+    private long lastKey = Long.MIN_VALUE;
+    private long[] lastBits;
+
+    public PassabilityCache(BlockView world) {
+        this.world = world;
+    }
+
+    public BlockView getWorld() {
+        return world;
+    }
+
+    public boolean isFor(BlockView view) {
+        return world == view;
+    }
+
+    public boolean isFree(int x, int y, int z) {
+        return test(FREE, x, y, z);
+    }
+
+    public boolean isSolid(int x, int y, int z) {
+        return test(SOLID, x, y, z);
+    }
+
+    public boolean isVegetation(int x, int y, int z) {
+        return test(VEGETATION, x, y, z);
+    }
+
+    public boolean isFullCube(int x, int y, int z) {
+        return test(FULL_CUBE, x, y, z);
+    }
+
+    /** Collision-free or ignorable vegetation: the miner can walk through it without breaking it. */
+    public boolean isWalkable(int x, int y, int z) {
+        long[] bits = section(x, y, z);
+        int index = cellIndex(x, y, z);
+        long mask = 1L << index;
+        return ((bits[FREE * 64 + (index >>> 6)] | bits[VEGETATION * 64 + (index >>> 6)]) & mask) != 0;
+    }
+
+    public boolean isFree(BlockPos pos) {
+        return isFree(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    public boolean isSolid(BlockPos pos) {
+        return isSolid(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    public boolean isWalkable(BlockPos pos) {
+        return isWalkable(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    /** Solid ground below and room for feet and head. */
+    public boolean isSafeToStandOn(int x, int y, int z) {
+        return isSolid(x, y - 1, z) && isWalkable(x, y, z) && isWalkable(x, y + 1, z);
+    }
+
+    public boolean isSafeToStandOn(BlockPos pos) {
+        return isSafeToStandOn(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    /** Drops the section containing {@code pos}; it is classified again on next access. */
+    public void invalidate(BlockPos pos) {
+        long key = sectionKey(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        int index = sectionIndex.get(key);
+        if (index >= 0) sections[index] = null;
+        if (key == lastKey) {
+            lastKey = Long.MIN_VALUE;
+            lastBits = null;
+        }
+    }
+
+    private boolean test(int plane, int x, int y, int z) {
+        long[] bits = section(x, y, z);
+        int index = cellIndex(x, y, z);
+        return (bits[plane * 64 + (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    private static int cellIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private static long sectionKey(int sx, int sy, int sz) {
+        return BlockPos.asLong(sx, sy, sz);
+    }
+
+    private long[] section(int x, int y, int z) {
+        int sx = x >> 4, sy = y >> 4, sz = z >> 4;
+        long key = sectionKey(sx, sy, sz);
+        if (key == lastKey) return lastBits;
+
+        long[] bits;
+        int index = sectionIndex.get(key);
+        if (index >= 0 && sections[index] != null) {
+            bits = sections[index];
+        } else if (world instanceof BlockSnapshot snapshot) {
+            // Snapshots memoize the bits with their shared section copies.
+            bits = snapshot.passabilityBits(sx, sy, sz);
+        } else if (world instanceof World live && !live.getChunkManager().isChunkLoaded(sx, sz)) {
+            // Do not cache unloaded chunks, they would stay "air" after loading.
+            return computeSection(world, sx, sy, sz);
+        } else {
+            bits = computeSection(world, sx, sy, sz);
+            if (index < 0) {
+                if (sectionCount == sections.length) sections = Arrays.copyOf(sections, sectionCount * 2);
+                index = sectionCount++;
+                sectionIndex.put(key, index);
+            }
+            sections[index] = bits;
+        }
+        lastKey = key;
+        lastBits = bits;
+        return bits;
+    }
+
+    /** Classifies all 4096 blocks of one section. */
+    static long[] computeSection(BlockView world, int sx, int sy, int sz) {
+        long[] bits = new long[SECTION_LONGS];
+        Map<BlockState, Byte> classes = new IdentityHashMap<>();
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int baseX = sx << 4, baseY = sy << 4, baseZ = sz << 4;
+        for (int index = 0; index < 4096; index++) {
+            pos.set(baseX + (index & 15), baseY + (index >>> 8), baseZ + ((index >>> 4) & 15));
+            BlockState state = world.getBlockState(pos);
+            Byte flags = classes.get(state);
+            if (flags == null) {
+                flags = classify(world, pos, state);
+                classes.put(state, flags);
+            }
+            long mask = 1L << index;
+            int word = index >>> 6;
+            if ((flags & (1 << FREE)) != 0) bits[FREE * 64 + word] |= mask;
+            if ((flags & (1 << SOLID)) != 0) bits[SOLID * 64 + word] |= mask;
+            if ((flags & (1 << VEGETATION)) != 0) bits[VEGETATION * 64 + word] |= mask;
+            if ((flags & (1 << FULL_CUBE)) != 0) bits[FULL_CUBE * 64 + word] |= mask;
+        }
+        return bits;
+    }
+
+    private static byte classify(BlockView world, BlockPos pos, BlockState state) {
+        int flags = 0;
+        if (state.getCollisionShape(world, pos).isEmpty()) flags |= 1 << FREE;
+        if (state.isSolidBlock(world, pos)) flags |= 1 << SOLID;
+        if (MiningLogic.isIgnorableVegetation(state)) flags |= 1 << VEGETATION;
+        if (state.isFullCube(world, pos)) flags |= 1 << FULL_CUBE;
+        return (byte) flags;
+    }
+}
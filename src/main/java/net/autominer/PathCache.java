@@ -0,0 +1,101 @@
+package net.autominer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Recently planned routes, reused when the next target can be mined from a cell on one of them.
+ * Targets are mined in snake order, so the next target is usually next to the last one and a cell
+ * to mine it from usually lies on the route the miner just walked, ahead of it or behind it.
+ * <p>
+ * Routes are not invalidated by block updates. Instead, the stretch that would be reused is
+ * checked move by move against the current world, which costs a few bit tests per step.
+ * Only used on the client thread.
+ */
+public class PathCache {
+    private static final int CAPACITY = 16;
+
+    // Packed cells of each route, including its start cell. Most recent first.
+    private final ArrayDeque<long[]> routes = new ArrayDeque<>();
+
+    /** Remembers the route from {@code start} along {@code path} (which does not contain {@code start}). */
+    public void add(BlockPos start, List<BlockPos> path) {
+        if (path.isEmpty()) return;
+        long[] route = new long[path.size() + 1];
+        route[0] = start.asLong();
+        for (int i = 0; i < path.size(); i++) {
+            route[i + 1] = path.get(i).asLong();
+        }
+        if (routes.size() == CAPACITY) routes.removeLast();
+        routes.addFirst(route);
+    }
+
+    /**
+     * Finds the cheapest stretch of a cached route that leads from {@code from} to a cell of
+     * {@code region}, walking the route forwards or backwards. A stretch ends at the first move
+     * that is no longer possible.
+     * @return the path without {@code from}, ending in the region, or null.
+     */
+    public List<BlockPos> find(MovementModel movement, BlockPos from, StandRegion region) {
+        long start = from.asLong();
+        long[] bestRoute = null;
+        int bestFrom = 0, bestTo = 0;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (long[] route : routes) {
+            int index = indexOf(route, start);
+            if (index < 0) continue;
+            for (int step = -1; step <= 1; step += 2) {
+                double cost = 0;
+                for (int i = index; i + step >= 0 && i + step < route.length; i += step) {
+                    double moveCost = moveCost(movement, route[i], route[i + step]);
+                    if (moveCost == MovementModel.IMPOSSIBLE) break;
+                    cost += moveCost;
+                    if (cost >= bestCost) break;
+                    if (region.contains(route[i + step])) {
+                        bestRoute = route;
+                        bestFrom = index;
+                        bestTo = i + step;
+                        bestCost = cost;
+                        break;
+                    }
+                }
+            }
+        }
+        if (bestRoute == null) return null;
+        List<BlockPos> path = new ArrayList<>(Math.abs(bestTo - bestFrom));
+        int step = bestTo > bestFrom ? 1 : -1;
+        for (int i = bestFrom + step; i != bestTo + step; i += step) {
+            path.add(BlockPos.fromLong(bestRoute[i]));
+        }
+        return path;
+    }
+
+    /** True if a cached route passes {@code cell}, i.e. {@link #find} has anything to look at. */
+    public boolean passes(BlockPos cell) {
+        long packed = cell.asLong();
+        for (long[] route : routes) {
+            if (indexOf(route, packed) >= 0) return true;
+        }
+        return false;
+    }
+
+    public void clear() {
+        routes.clear();
+    }
+
+    private static int indexOf(long[] route, long cell) {
+        for (int i = 0; i < route.length; i++) {
+            if (route[i] == cell) return i;
+        }
+        return -1;
+    }
+
+    private static double moveCost(MovementModel movement, long from, long to) {
+        int x = BlockPos.unpackLongX(from), y = BlockPos.unpackLongY(from), z = BlockPos.unpackLongZ(from);
+        int move = MovementModel.moveBetween(BlockPos.unpackLongX(to) - x, BlockPos.unpackLongY(to) - y, BlockPos.unpackLongZ(to) - z);
+        return move < 0 ? MovementModel.IMPOSSIBLE : movement.cost(x, y, z, move);
+    }
+}
@@ -0,0 +1,8 @@
+package net.autominer;
+
+public enum PathFindResultType {
+    SUCCESS,
+    PARTIAL,
+    NO_PATH,
+    SEARCH_LIMIT_REACHED
+}
@@ -0,0 +1,67 @@
+package net.autominer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * String-pulling for the block-by-block paths of the planners. Drops every node the miner can walk
+ * past in a straight line, so the follower steers towards corners instead of through each cell.
+ * Only level stretches through open cells are pulled; nodes where the path changes height or a
+ * block has to be broken or placed are always kept.
+ */
+public final class PathSmoother {
+    // Half the player's hitbox width plus a margin, so straight lines keep clear of wall corners.
+    private static final double HALF_WIDTH = 0.35;
+    private static final double SAMPLE_STEP = 0.25;
+
+    private PathSmoother() {
+    }
+
+    /**
+     * @param start the cell the path starts from; not part of {@code path}.
+     * @return the path without the nodes a straight line can skip, ending at the same node.
+     */
+    public static List<BlockPos> smooth(PassabilityCache passability, BlockPos start, List<BlockPos> path) {
+        if (path.size() < 2) return path;
+        List<BlockPos> result = new ArrayList<>();
+        BlockPos anchor = start;
+        for (int i = 0; i < path.size() - 1; i++) {
+            BlockPos node = path.get(i);
+            if (canWalkStraight(passability, anchor, path.get(i + 1))) continue;
+            result.add(node);
+            anchor = node;
+        }
+        result.add(path.get(path.size() - 1));
+        return result;
+    }
+
+    /**
+     * True if the player can walk in a straight line from the center of {@code from} to the center of
+     * {@code to}: both on the same level, every cell the hitbox sweeps open and on solid ground.
+     */
+    public static boolean canWalkStraight(PassabilityCache passability, BlockPos from, BlockPos to) {
+        if (from.getY() != to.getY()) return false;
+        int y = from.getY();
+        double fromX = from.getX() + 0.5, fromZ = from.getZ() + 0.5;
+        double dx = to.getX() - from.getX(), dz = to.getZ() - from.getZ();
+        int samples = (int) Math.ceil(Math.sqrt(dx * dx + dz * dz) / SAMPLE_STEP);
+        for (int i = 0; i <= samples; i++) {
+            double t = samples == 0 ? 0 : (double) i / samples;
+            double x = fromX + dx * t, z = fromZ + dz * t;
+            if (!isOpenGround(passability, MathHelper.floor(x - HALF_WIDTH), y, MathHelper.floor(z - HALF_WIDTH))
+                    || !isOpenGround(passability, MathHelper.floor(x + HALF_WIDTH), y, MathHelper.floor(z - HALF_WIDTH))
+                    || !isOpenGround(passability, MathHelper.floor(x - HALF_WIDTH), y, MathHelper.floor(z + HALF_WIDTH))
+                    || !isOpenGround(passability, MathHelper.floor(x + HALF_WIDTH), y, MathHelper.floor(z + HALF_WIDTH))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOpenGround(PassabilityCache passability, int x, int y, int z) {
+        return passability.isWalkable(x, y, z) && passability.isWalkable(x, y + 1, z) && !passability.isFree(x, y - 1, z);
+    }
+}
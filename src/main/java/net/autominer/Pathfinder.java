@@ -0,0 +1,379 @@
+package net.autominer;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+
+/**
+ * A* search for a walking path (or a position to mine from) inside and around the mining area.
+ * The search only reads from the {@link BlockView} it was started with, so it can run on the
+ * client thread against the live world or on the planner thread against a {@link BlockSnapshot}.
+ * When looking for a position to mine from, the goal is the target's {@link StandRegion} and the
+ * heuristic is the distance to that region.
+ * <p>
+ * Nodes live in the parallel primitive arrays of a {@link SearchArena}, indexed by node id. Positions
+ * are packed with {@link BlockPos#asLong()}, looked up through a {@link LongIndexMap} and queued in an
+ * {@link IndexedMinHeap}, so improving a node is a decrease-key instead of a linear scan. Immutable
+ * {@link BlockPos} objects are only created when the final path is rebuilt.
+ */
+public class Pathfinder {
+    private final AutoMinerConfig config;
+
+    private PassabilityCache passability;
+    private MovementModel movement;
+    private StandRegion region;
+    private volatile boolean cancelled;
+
+    private final SearchArena arena;
+    private int iterations;
+    // Cheapest goal region cell generated so far, -1 if none. The search is done once no open node can beat it.
+    private int goalNode;
+
+    // Weighted A* and ARA*: keys are g + epsilon * h. ARA* lowers epsilon step by step after each path;
+    // a node expanded in the current round has closed == round, one improved after that has -round.
+    private double epsilon;
+    private boolean anytime;
+    private int round;
+    private double solutionCost;
+    private boolean refining;
+    private boolean refinementDone;
+    // Cheaper paths found by refineToCompletion on the planner thread, picked up by the client thread.
+    private final AtomicReference<PathfinderResult> improvement = new AtomicReference<>();
+
+    // Partial paths (see AutoMinerConfig#partialPathsOnLimit): the expanded node closest to the goal region.
+    private int bestNode;
+    private double bestDistance;
+    // Memory-bounded fallback once the node table is full, started from bestNode.
+    private IterativeDeepeningSearch fallback;
+    private static final int FALLBACK_EXPANSION_FACTOR = 4;
+
+    // Bytes the planner thread allocated during runToCompletion, or -1 if the JVM does not count them.
+    private long allocatedBytes = -1;
+    // Expanding a node should stay close to allocation-free once the arena has grown; the first
+    // reads of snapshot sections fit in this, a BlockPos per probed move (24 bytes each) does not.
+    static final long MAX_BYTES_PER_NODE = 256;
+    // Smaller searches are dominated by building the result.
+    private static final int MIN_MEASURED_NODES = 1000;
+
+    // Chunk sections the search read, for the negative cache of unreachable targets.
+    private final LongIndexMap touchedIndex = new LongIndexMap(64);
+    private long[] touched = new long[64];
+    private int touchedCount;
+    private long lastTouched = Long.MIN_VALUE;
+
+    public Pathfinder(AutoMinerConfig config) {
+        this(config, new SearchArena());
+    }
+
+    /** @param arena node storage to reuse; no other search may use it while this one runs. */
+    public Pathfinder(AutoMinerConfig config, SearchArena arena) {
+        this.config = config;
+        this.arena = arena;
+    }
+
+    /**
+     * Prepares a new search. Nothing is expanded until {@link #continuePath(int)} or {@link #runToCompletion()} is called.
+     * @param movement the moves and costs to search over.
+     */
+    public void startPath(MovementModel movement, BlockPos start, BlockPos goal, boolean findStandPos) {
+        this.passability = movement.getPassability();
+        this.movement = movement;
+        // Valid stand cells are checked once here, the search then only tests set membership.
+        this.region = findStandPos ? StandRegion.compute(passability, goal) : StandRegion.single(goal);
+        this.anytime = config.searchMode == SearchMode.ANYTIME;
+        this.epsilon = config.searchMode == SearchMode.ASTAR ? 1.0 : Math.max(1.0, config.searchEpsilon);
+        this.round = 1;
+        this.refining = false;
+        this.refinementDone = false;
+        this.improvement.set(null);
+        this.arena.clear();
+        int startNode = arena.newNode(start.asLong(), -1, 0);
+        this.goalNode = region.contains(start.asLong()) ? startNode : -1;
+        double h = getHeuristic(start.getX(), start.getY(), start.getZ());
+        this.arena.open.insertOrUpdate(startNode, epsilon * h, h);
+        this.iterations = 0;
+        this.allocatedBytes = -1;
+        this.bestNode = startNode;
+        this.bestDistance = region.distanceTo(start.getX(), start.getY(), start.getZ());
+        this.fallback = null;
+        this.touchedIndex.clear();
+        this.touchedCount = 0;
+        this.lastTouched = Long.MIN_VALUE;
+        // Line of sight to the target may open up when blocks around it change.
+        int reach = (int) Math.ceil(Math.sqrt(MiningLogic.MAX_REACH_DISTANCE_SQUARED)) + 1;
+        touchBox(goal.getX() - reach, goal.getY() - reach, goal.getZ() - reach, goal.getX() + reach, goal.getY() + reach, goal.getZ() + reach);
+    }
+
+    /** Asks a running search to stop. Safe to call from any thread. */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Runs the search until it finishes. Used by the background planner.
+     * @return the result, or null if the search was cancelled.
+     */
+    public PathfinderResult runToCompletion() {
+        long before = threadAllocatedBytes();
+        try {
+            while (!cancelled) {
+                PathfinderResult result = continuePath(config.nodesPerTick);
+                if (result != null) return result;
+            }
+            return null;
+        } finally {
+            allocatedBytes = before < 0 ? -1 : threadAllocatedBytes() - before;
+        }
+    }
+
+    /**
+     * Bytes allocated per expanded node by the last {@link #runToCompletion()}, including building the
+     * result and growing the arena, or -1 if it was not measured or expanded too few nodes to tell.
+     * Only for the mining log.
+     */
+    public long getBytesPerNode() {
+        return allocatedBytes < 0 || iterations < MIN_MEASURED_NODES ? -1 : allocatedBytes / iterations;
+    }
+
+    /** @return bytes allocated by the current thread so far, or -1 if the JVM does not count them. */
+    private static long threadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Expands up to {@code nodeBudget} nodes.
+     * @return the result, or null if the search needs more calls.
+     */
+    public PathfinderResult continuePath(int nodeBudget) {
+        if (region.isEmpty()) {
+            return new PathfinderResult(PathFindResultType.NO_PATH, null, null);
+        }
+        if (fallback != null) {
+            return continueFallback(nodeBudget);
+        }
+        int nodesThisCall = 0;
+        while (nodesThisCall < nodeBudget) {
+            // g of a goal cell is its key, so with epsilon 1 this is the usual A* stop when the goal is polled.
+            if (goalNode >= 0 && (arena.open.isEmpty() || arena.g[goalNode] <= arena.open.peekKey())) {
+                solutionCost = arena.g[goalNode];
+                return new PathfinderResult(PathFindResultType.SUCCESS, reconstructPath(goalNode), BlockPos.fromLong(arena.pos[goalNode]));
+            }
+            if (arena.open.isEmpty()) break;
+            if (iterations >= config.maxSearchNodes) {
+                if (!refining) return onSearchLimit();
+                // Out of nodes while refining: keep the last path.
+                refinementDone = true;
+                return null;
+            }
+            iterations++;
+            nodesThisCall++;
+
+            int currentNode = arena.open.poll();
+            long current = arena.pos[currentNode];
+            arena.closed[currentNode] = round;
+            touchMoves(current);
+            double distance = region.distanceTo(BlockPos.unpackLongX(current), BlockPos.unpackLongY(current), BlockPos.unpackLongZ(current));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestNode = currentNode;
+            }
+            addNeighbors(currentNode, current);
+        }
+
+        if (arena.open.isEmpty()) {
+            if (refining) {
+                refinementDone = true;
+                return null;
+            }
+            return new PathfinderResult(PathFindResultType.NO_PATH, null, null);
+        }
+
+        return null;
+    }
+
+    /** True while ARA* can still lower epsilon and look for a cheaper path than the last one returned. */
+    public boolean canRefine() {
+        return anytime && goalNode >= 0 && (refining || epsilon > 1.0) && !refinementDone && !cancelled && fallback == null;
+    }
+
+    /**
+     * One slice of ARA* refinement. Starts the next round with a lower epsilon when the previous one
+     * is done: nodes that were improved after they were expanded are queued again, every key is
+     * recomputed, and the search continues from where it stopped instead of from scratch.
+     * @return a path cheaper than the last one once a round finds it, otherwise null.
+     */
+    public PathfinderResult refine(int nodeBudget) {
+        if (!refining) {
+            if (!canRefine()) return null;
+            startRound();
+        }
+        double previousCost = solutionCost;
+        PathfinderResult result = continuePath(nodeBudget);
+        if (result == null) return null;
+        refining = false;
+        if (epsilon <= 1.0) refinementDone = true;
+        return solutionCost < previousCost ? result : null;
+    }
+
+    /** Refines until the path is optimal, the node limit is reached or the search is cancelled. Runs on the planner thread. */
+    public void refineToCompletion() {
+        while (canRefine()) {
+            PathfinderResult better = refine(config.nodesPerTick);
+            if (better != null) improvement.set(better);
+            if (refinementDone) return;
+        }
+    }
+
+    /** @return the latest cheaper path from {@link #refineToCompletion()} not yet taken, or null. Safe to call from any thread. */
+    public PathfinderResult takeImprovement() {
+        return improvement.getAndSet(null);
+    }
+
+    private void startRound() {
+        epsilon = Math.max(1.0, epsilon - config.epsilonStep);
+        int inconsistent = -round;
+        round++;
+        for (int node = 0; node < arena.count; node++) {
+            if (!arena.open.contains(node) && arena.closed[node] != inconsistent) continue;
+            long pos = arena.pos[node];
+            double h = getHeuristic(BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos));
+            arena.open.insertOrUpdate(node, arena.g[node] + epsilon * h, h);
+        }
+        refining = true;
+    }
+
+    /**
+     * The node table is full. Either continue with IDA* from the node closest to the goal, or hand
+     * out the best partial path (see {@link AutoMinerConfig#boundedMemorySearch} and {@link AutoMinerConfig#partialPathsOnLimit}).
+     */
+    private PathfinderResult onSearchLimit() {
+        if (config.boundedMemorySearch) {
+            fallback = new IterativeDeepeningSearch(movement, region, arena.pos[bestNode]);
+            return null;
+        }
+        return limitResult();
+    }
+
+    private PathfinderResult continueFallback(int nodeBudget) {
+        IterativeDeepeningSearch.Status status = fallback.continueSearch(nodeBudget);
+        if (status == IterativeDeepeningSearch.Status.FOUND) {
+            List<BlockPos> path = reconstructPath(bestNode);
+            path.addAll(fallback.getPath());
+            return new PathfinderResult(PathFindResultType.SUCCESS, path, path.get(path.size() - 1));
+        }
+        if (status == IterativeDeepeningSearch.Status.EXHAUSTED
+                || fallback.getExpansions() >= config.maxSearchNodes * FALLBACK_EXPANSION_FACTOR) {
+            return limitResult();
+        }
+        return null;
+    }
+
+    private PathfinderResult limitResult() {
+        if (config.partialPathsOnLimit && bestNode != 0) {
+            return new PathfinderResult(PathFindResultType.PARTIAL, reconstructPath(bestNode), BlockPos.fromLong(arena.pos[bestNode]));
+        }
+        return new PathfinderResult(PathFindResultType.SEARCH_LIMIT_REACHED, null, null);
+    }
+
+    /** @return keys ({@link BlockPos#asLong} of section coordinates) of every chunk section the search read. */
+    public long[] getTouchedSections() {
+        return Arrays.copyOf(touched, touchedCount);
+    }
+
+    /** Records the sections that the moves out of {@code pos} read. */
+    private void touchMoves(long pos) {
+        int x = BlockPos.unpackLongX(pos), y = BlockPos.unpackLongY(pos), z = BlockPos.unpackLongZ(pos);
+        long section = BlockPos.asLong(x >> 4, y >> 4, z >> 4);
+        boolean inside = ((x + MovementModel.INFLUENCE_HORIZONTAL) >> 4) == ((x - MovementModel.INFLUENCE_HORIZONTAL) >> 4)
+                && ((y + MovementModel.INFLUENCE_BELOW) >> 4) == ((y - MovementModel.INFLUENCE_ABOVE) >> 4)
+                && ((z + MovementModel.INFLUENCE_HORIZONTAL) >> 4) == ((z - MovementModel.INFLUENCE_HORIZONTAL) >> 4);
+        if (inside && section == lastTouched) return;
+        lastTouched = inside ? section : Long.MIN_VALUE;
+        touchBox(x - MovementModel.INFLUENCE_HORIZONTAL, y - MovementModel.INFLUENCE_ABOVE, z - MovementModel.INFLUENCE_HORIZONTAL,
+                x + MovementModel.INFLUENCE_HORIZONTAL, y + MovementModel.INFLUENCE_BELOW, z + MovementModel.INFLUENCE_HORIZONTAL);
+    }
+
+    private void touchBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (int sx = minX >> 4; sx <= maxX >> 4; sx++) {
+            for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+                for (int sz = minZ >> 4; sz <= maxZ >> 4; sz++) {
+                    long key = BlockPos.asLong(sx, sy, sz);
+                    if (touchedIndex.get(key) >= 0) continue;
+                    if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                    touchedIndex.put(key, touchedCount);
+                    touched[touchedCount++] = key;
+                }
+            }
+        }
+    }
+
+    private void addNeighbors(int currentNode, long currentPos) {
+        int x = BlockPos.unpackLongX(currentPos), y = BlockPos.unpackLongY(currentPos), z = BlockPos.unpackLongZ(currentPos);
+        for (int move = 0; move < MovementModel.MOVES; move++) {
+            double cost = movement.cost(x, y, z, move);
+            if (cost == MovementModel.IMPOSSIBLE) continue;
+            addNode(currentNode, x + MovementModel.MOVE_X[move], y + MovementModel.MOVE_Y[move], z + MovementModel.MOVE_Z[move], cost);
+        }
+    }
+
+    private void addNode(int parentNode, int x, int y, int z, double cost) {
+        double tentativeGCost = arena.g[parentNode] + cost;
+        long key = BlockPos.asLong(x, y, z);
+        int node = arena.index.get(key);
+        if (node < 0) {
+            node = arena.newNode(key, parentNode, tentativeGCost);
+        } else if (tentativeGCost < arena.g[node]) {
+            arena.parent[node] = parentNode;
+            arena.g[node] = tentativeGCost;
+        } else {
+            return;
+        }
+        if (region.contains(key) && (goalNode < 0 || tentativeGCost < arena.g[goalNode])) goalNode = node;
+        if (anytime && Math.abs(arena.closed[node]) == round) {
+            // ARA* does not reopen nodes within a round; they are queued again when the next one starts.
+            arena.closed[node] = -round;
+            return;
+        }
+        // Inserts new and reopened nodes, re-sifts improved ones already in the open set.
+        // Ties go to the node closer to the goal, so equal keys run deep instead of spreading out.
+        double h = getHeuristic(x, y, z);
+        arena.open.insertOrUpdate(node, tentativeGCost + epsilon * h, h);
+    }
+
+    public boolean isPassable(BlockPos pos) {
+        return passability != null && passability.isFree(pos.getX(), pos.getY(), pos.getZ()) && passability.isFree(pos.getX(), pos.getY() + 1, pos.getZ());
+    }
+
+    private double getHeuristic(int x, int y, int z) {
+        return region.distanceTo(x, y, z) * movement.minCostPerBlock();
+    }
+
+    private List<BlockPos> reconstructPath(int endNode) {
+        List<BlockPos> path = new ArrayList<>();
+        int current = endNode;
+        while (current >= 0 && arena.parent[current] >= 0) {
+            path.add(BlockPos.fromLong(arena.pos[current]));
+            current = arena.parent[current];
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,17 @@
+package net.autominer;
+
+import java.util.List;
+
+import net.minecraft.util.math.BlockPos;
+
+public class PathfinderResult {
+    final PathFindResultType type;
+    final List<BlockPos> path;
+    final BlockPos standPos;
+
+    PathfinderResult(PathFindResultType type, List<BlockPos> path, BlockPos standPos) {
+        this.type = type;
+        this.path = path;
+        this.standPos = standPos;
+    }
+}
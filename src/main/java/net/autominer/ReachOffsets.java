@@ -0,0 +1,79 @@
+package net.autominer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cell offsets that candidate enumerations walk, built once: the cells a target can be mined from
+ * and the cells around the player worth stepping to. Each offset is packed into one int, and the
+ * tables are sorted so that loops can stop at the first cell that works.
+ */
+final class ReachOffsets {
+    /**
+     * Stand cell minus target for every cell whose eye is within reach of the target's center (see
+     * {@link StandRegion}), closest eye first and level cells before others at the same distance.
+     */
+    static final int[] STAND;
+    // Squared distance from the eye of each STAND cell to the target's center, ascending.
+    static final double[] STAND_DISTANCE_SQUARED;
+    // Cells on the player's level up to two blocks away, fewest steps first.
+    static final int[] NEARBY;
+
+    static {
+        List<int[]> stand = new ArrayList<>();
+        for (int dy = -StandRegion.MAX_DY_BELOW; dy <= StandRegion.MAX_DY_ABOVE; dy++) {
+            for (int dx = -StandRegion.MAX_HORIZONTAL; dx <= StandRegion.MAX_HORIZONTAL; dx++) {
+                for (int dz = -StandRegion.MAX_HORIZONTAL; dz <= StandRegion.MAX_HORIZONTAL; dz++) {
+                    if (dx == 0 && dy == 0 && dz == 0) continue;
+                    if (eyeDistanceSquared(dx, dy, dz) <= MiningLogic.MAX_REACH_DISTANCE_SQUARED) stand.add(new int[] { dx, dy, dz });
+                }
+            }
+        }
+        stand.sort(Comparator.<int[]>comparingDouble(o -> eyeDistanceSquared(o[0], o[1], o[2])).thenComparingInt(o -> Math.abs(o[1])));
+        STAND = new int[stand.size()];
+        STAND_DISTANCE_SQUARED = new double[stand.size()];
+        for (int i = 0; i < STAND.length; i++) {
+            int[] o = stand.get(i);
+            STAND[i] = pack(o[0], o[1], o[2]);
+            STAND_DISTANCE_SQUARED[i] = eyeDistanceSquared(o[0], o[1], o[2]);
+        }
+
+        List<int[]> nearby = new ArrayList<>();
+        for (int dx = -2; dx <= 2; dx++) {
+            for (int dz = -2; dz <= 2; dz++) {
+                if (dx != 0 || dz != 0) nearby.add(new int[] { dx, 0, dz });
+            }
+        }
+        nearby.sort(Comparator.comparingInt(o -> o[0] * o[0] + o[2] * o[2]));
+        NEARBY = new int[nearby.size()];
+        for (int i = 0; i < NEARBY.length; i++) {
+            int[] o = nearby.get(i);
+            NEARBY[i] = pack(o[0], o[1], o[2]);
+        }
+    }
+
+    private ReachOffsets() {
+    }
+
+    static int pack(int dx, int dy, int dz) {
+        return (dx & 0xFF) << 16 | (dy & 0xFF) << 8 | (dz & 0xFF);
+    }
+
+    static int x(int offset) {
+        return (byte) (offset >> 16);
+    }
+
+    static int y(int offset) {
+        return (byte) (offset >> 8);
+    }
+
+    static int z(int offset) {
+        return (byte) offset;
+    }
+
+    private static double eyeDistanceSquared(int dx, int dy, int dz) {
+        double ey = dy + StandRegion.EYE_HEIGHT;
+        return dx * dx + ey * ey + dz * dz;
+    }
+}
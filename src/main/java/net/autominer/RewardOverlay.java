@@ -0,0 +1,72 @@
+package net.autominer;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * The learned rewards of {@link TrainingData} as a dense grid of cost factors over the mining area,
+ * so the planners pay one array read per move instead of a map lookup. Rewards lower the cost of
+ * moving into a cell and penalties raise it, but only within {@link #MIN_FACTOR} and
+ * {@link #MAX_FACTOR}: a move never gets cheaper than a fixed share of its real cost, which keeps
+ * the heuristic admissible (see {@link MovementModel#minCostPerBlock()}).
+ * <p>
+ * Only written on the client thread. Planner threads read it while it changes; a stale factor only
+ * makes one move a little cheaper or dearer than it should be.
+ */
+public class RewardOverlay {
+    static final float MIN_FACTOR = 0.75f;
+    static final float MAX_FACTOR = 1.5f;
+    // Share of a move's cost that one reward point takes off, or one penalty point adds.
+    private static final float FACTOR_PER_REWARD = 0.01f;
+    // 4M cells, 16 MB.
+    private static final int MAX_CELLS = 1 << 22;
+
+    private final int minX, minY, minZ, sizeX, sizeY, sizeZ;
+    private final float[] factors;
+
+    private RewardOverlay(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.factors = new float[sizeX * sizeY * sizeZ];
+        Arrays.fill(factors, 1.0f);
+    }
+
+    /**
+     * Lays the rewards between {@code min} and {@code max} (inclusive) onto a new grid.
+     * @return the overlay, or null if the box is too large.
+     */
+    public static RewardOverlay build(Map<BlockPos, Integer> rewards, BlockPos min, BlockPos max) {
+        if ((long) (max.getX() - min.getX() + 1) * (max.getY() - min.getY() + 1) * (max.getZ() - min.getZ() + 1) > MAX_CELLS) return null;
+        RewardOverlay overlay = new RewardOverlay(min.getX(), min.getY(), min.getZ(),
+                max.getX() - min.getX() + 1, max.getY() - min.getY() + 1, max.getZ() - min.getZ() + 1);
+        for (Map.Entry<BlockPos, Integer> entry : rewards.entrySet()) {
+            overlay.set(entry.getKey(), entry.getValue());
+        }
+        return overlay;
+    }
+
+    /** Sets the total reward of {@code pos}; positions outside the grid are ignored. */
+    public void set(BlockPos pos, int reward) {
+        int cell = index(pos.getX(), pos.getY(), pos.getZ());
+        if (cell < 0) return;
+        factors[cell] = Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, 1.0f - reward * FACTOR_PER_REWARD));
+    }
+
+    /** @return the factor for moves into x, y, z; 1 outside the grid. */
+    public float factor(int x, int y, int z) {
+        int cell = index(x, y, z);
+        return cell < 0 ? 1.0f : factors[cell];
+    }
+
+    private int index(int x, int y, int z) {
+        int dx = x - minX, dy = y - minY, dz = z - minZ;
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= sizeX || dy >= sizeY || dz >= sizeZ) return -1;
+        return (dx * sizeZ + dz) * sizeY + dy;
+    }
+}
@@ -0,0 +1,150 @@
+package net.autominer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Orders upcoming visits to cut the predicted time to make them all: walking from each visit to the
+ * next plus breaking what each one mines. A visit is anything mined from a set of stand cells: one
+ * target with its {@link StandRegion}, or a {@link StandPlanner.Stop} with its one cell. Starts from
+ * the nearest-neighbor order and improves it by local search, with or-opt (moving a run of up to
+ * {@link #MAX_RUN} visits elsewhere) and 2-opt (reversing a stretch) until no move makes the route
+ * faster.
+ * <p>
+ * A leg is priced as the straight line between the closest cells of the two visits at walking speed,
+ * so visits that share a stand cell cost nothing to chain and a target in reach of where the miner
+ * stands costs nothing to start with. It is an estimate of the order rather than of the paths the
+ * planner will find. Breaking is predicted for the stance the miner has when the route is planned,
+ * which makes it the same in any order; the search only moves walking, but both go into the
+ * prediction that is checked against the ticks the route really took. Legs are priced once per route,
+ * so every candidate move is priced over the whole route. Only used on the client thread.
+ */
+public final class RouteOptimizer {
+    static final int MAX_RUN = 3;
+    // Local search stops after this many improving rounds even if it could go on.
+    static final int MAX_ROUNDS = 20;
+
+    /** Something to mine standing in any of {@code cells}, taking {@code breakTicks} to break. */
+    public record Visit<T>(T item, long[] cells, int breakTicks) {
+    }
+
+    /**
+     * Visits in the order to make them, the predicted ticks spent walking and breaking, and the
+     * walking predicted for the order they were given in.
+     */
+    public record Route<T>(List<T> order, double walkTicks, int breakTicks, double givenWalkTicks) {
+        public double totalTicks() {
+            return walkTicks + breakTicks;
+        }
+    }
+
+    private RouteOptimizer() {
+    }
+
+    /** @param from the cell the miner stands in now; the route starts here. */
+    public static <T> Route<T> optimize(BlockPos from, List<Visit<T>> visits) {
+        int n = visits.size();
+        // legs[i][j] is the walk from visit i to visit j; row n starts at the miner.
+        double[][] legs = new double[n + 1][n];
+        long[] start = { from.asLong() };
+        for (int j = 0; j < n; j++) {
+            legs[n][j] = distance(start, visits.get(j).cells());
+            for (int i = 0; i < j; i++) {
+                legs[i][j] = legs[j][i] = distance(visits.get(i).cells(), visits.get(j).cells());
+            }
+        }
+        int[] given = new int[n];
+        for (int i = 0; i < n; i++) given[i] = i;
+        int[] order = nearestNeighbor(legs, n);
+        double cost = walk(legs, order);
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            int[] better = improve(legs, order, cost);
+            if (better == null) break;
+            order = better;
+            cost = walk(legs, order);
+        }
+        List<T> items = new ArrayList<>(n);
+        int breaking = 0;
+        for (int i : order) {
+            items.add(visits.get(i).item());
+            breaking += Math.max(0, visits.get(i).breakTicks());
+        }
+        return new Route<>(items, cost * MovementModel.WALK_TICKS, breaking, walk(legs, given) * MovementModel.WALK_TICKS);
+    }
+
+    /** Straight-line distance between the closest cells of {@code a} and {@code b}, 0 if they share one. */
+    private static double distance(long[] a, long[] b) {
+        double best = Double.POSITIVE_INFINITY;
+        for (long p : a) {
+            int x = BlockPos.unpackLongX(p), y = BlockPos.unpackLongY(p), z = BlockPos.unpackLongZ(p);
+            for (long q : b) {
+                double dx = BlockPos.unpackLongX(q) - x, dy = BlockPos.unpackLongY(q) - y, dz = BlockPos.unpackLongZ(q) - z;
+                best = Math.min(best, dx * dx + dy * dy + dz * dz);
+                if (best == 0) return 0;
+            }
+        }
+        return best == Double.POSITIVE_INFINITY ? 0 : Math.sqrt(best);
+    }
+
+    /** Blocks walked from the miner through {@code order}. */
+    private static double walk(double[][] legs, int[] order) {
+        double distance = 0;
+        int at = legs.length - 1;
+        for (int next : order) {
+            distance += legs[at][next];
+            at = next;
+        }
+        return distance;
+    }
+
+    private static int[] nearestNeighbor(double[][] legs, int n) {
+        boolean[] taken = new boolean[n];
+        int[] order = new int[n];
+        int at = n;
+        for (int k = 0; k < n; k++) {
+            int best = -1;
+            for (int j = 0; j < n; j++) {
+                if (!taken[j] && (best < 0 || legs[at][j] < legs[at][best])) best = j;
+            }
+            taken[best] = true;
+            order[k] = best;
+            at = best;
+        }
+        return order;
+    }
+
+    /** @return the first or-opt or 2-opt neighbor of {@code order} that walks less than {@code cost}, or null. */
+    private static int[] improve(double[][] legs, int[] order, double cost) {
+        int n = order.length;
+        int[] candidate = new int[n];
+        for (int length = 1; length <= Math.min(MAX_RUN, n - 1); length++) {
+            for (int start = 0; start + length <= n; start++) {
+                // The order without the run, with the run put back before rest[at].
+                int[] rest = new int[n - length];
+                System.arraycopy(order, 0, rest, 0, start);
+                System.arraycopy(order, start + length, rest, start, n - start - length);
+                for (int at = 0; at <= rest.length; at++) {
+                    if (at == start) continue;
+                    System.arraycopy(rest, 0, candidate, 0, at);
+                    System.arraycopy(order, start, candidate, at, length);
+                    System.arraycopy(rest, at, candidate, at + length, rest.length - at);
+                    if (walk(legs, candidate) < cost - 1e-6) return candidate;
+                }
+            }
+        }
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                System.arraycopy(order, 0, candidate, 0, n);
+                for (int a = i, b = j; a < b; a++, b--) {
+                    int swap = candidate[a];
+                    candidate[a] = candidate[b];
+                    candidate[b] = swap;
+                }
+                if (walk(legs, candidate) < cost - 1e-6) return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package net.autominer;
+
+import java.util.Arrays;
+
+/**
+ * Node storage for A* searches: positions, parents and path costs in parallel primitive arrays
+ * indexed by node id, plus the position lookup and the open set. An arena is cleared at the start
+ * of each search instead of being thrown away, so once its arrays have grown to the size of a
+ * typical search, expanding a node allocates nothing.
+ * <p>
+ * Not thread-safe. Searches that share an arena must run one after another, e.g. on the single
+ * planner thread.
+ */
+public class SearchArena {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    final LongIndexMap index = new LongIndexMap(INITIAL_CAPACITY);
+    final IndexedMinHeap open = new IndexedMinHeap(INITIAL_CAPACITY);
+    long[] pos = new long[INITIAL_CAPACITY];
+    int[] parent = new int[INITIAL_CAPACITY];
+    double[] g = new double[INITIAL_CAPACITY];
+    // Search round the node was expanded in, 0 if never; see Pathfinder.
+    int[] closed = new int[INITIAL_CAPACITY];
+    int count;
+
+    /** Forgets all nodes and keeps the arrays. */
+    public void clear() {
+        index.clear();
+        open.clear();
+        count = 0;
+    }
+
+    int newNode(long nodePos, int nodeParent, double gCost) {
+        if (count == pos.length) {
+            int capacity = count * 2;
+            pos = Arrays.copyOf(pos, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            g = Arrays.copyOf(g, capacity);
+            closed = Arrays.copyOf(closed, capacity);
+        }
+        int node = count++;
+        pos[node] = nodePos;
+        parent[node] = nodeParent;
+        g[node] = gCost;
+        closed[node] = 0;
+        index.put(nodePos, node);
+        return node;
+    }
+}
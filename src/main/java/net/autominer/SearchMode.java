@@ -0,0 +1,8 @@
+package net.autominer;
+
+/** How the A* {@link Pathfinder} trades planning time for path quality (see {@link AutoMinerConfig#searchMode}). */
+public enum SearchMode {
+    ASTAR,      // optimal paths, may flood large areas
+    WEIGHTED,   // heuristic weighted by epsilon: fast, at most epsilon times the optimal cost
+    ANYTIME     // ARA*: a weighted path first, then cheaper ones while the miner walks
+}
@@ -0,0 +1,82 @@
+package net.autominer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Clears the area one layer at a time from the top, each layer in square rings out from its center.
+ * A ring is as wide as the player reaches sideways from the middle of it, and blocks in a ring are
+ * ordered by their angle around the center. Every layer but the last ends on the rim and walks back
+ * to the center. Only the cells of the ring are visited, and each angle is computed once.
+ */
+public class SpiralStrategy extends MiningStrategy {
+    private final int centerX, centerZ;
+    private final int ringWidth;
+    // Chebyshev distance from the center to the farthest column of the area.
+    private final int radius;
+    // Sort keys pack the angle, the distance into the ring and the block's index, in that order.
+    private static final int INDEX_BITS = 27;
+    private int nextY;
+    private int nextRing;
+
+    public SpiralStrategy(MiningArea area) {
+        super(area);
+        this.centerX = (minX + maxX) >> 1;
+        this.centerZ = (minZ + maxZ) >> 1;
+        this.ringWidth = 2 * StandRegion.MAX_HORIZONTAL + 1;
+        this.radius = Math.max(Math.max(centerX - minX, maxX - centerX), Math.max(centerZ - minZ, maxZ - centerZ));
+        this.nextY = maxY;
+    }
+
+    @Override
+    @Nullable
+    public Batch next(BlockPos player) {
+        if (nextY < minY) return null;
+        int inner = nextRing * ringWidth, outer = inner + ringWidth;
+        int fromX = Math.max(minX, centerX - outer + 1), toX = Math.min(maxX, centerX + outer - 1);
+        int fromZ = Math.max(minZ, centerZ - outer + 1), toZ = Math.min(maxZ, centerZ + outer - 1);
+        List<BlockPos> cells = new ArrayList<>();
+        long[] keys = new long[64];
+        for (int x = fromX; x <= toX; x++) {
+            boolean crossesHole = Math.abs(x - centerX) < inner;
+            for (int z = fromZ; z <= toZ; z++) {
+                // Jump over the rings inside this one.
+                if (crossesHole && Math.abs(z - centerZ) < inner) z = centerZ + inner;
+                if (z > toZ) break;
+                int distance = Math.max(Math.abs(x - centerX), Math.abs(z - centerZ));
+                // Shifted to 0..2pi, where the bits of a float sort like its value.
+                float angle = (float) (Math.atan2(z - centerZ, x - centerX) + Math.PI);
+                if (cells.size() == keys.length) keys = Arrays.copyOf(keys, keys.length * 2);
+                keys[cells.size()] = (long) Float.floatToIntBits(angle) << 32 | (long) (distance - inner) << INDEX_BITS | cells.size();
+                cells.add(new BlockPos(x, nextY, z));
+            }
+        }
+        Arrays.sort(keys, 0, cells.size());
+        List<BlockPos> blocks = new ArrayList<>(cells.size());
+        for (int i = 0; i < cells.size(); i++) {
+            blocks.add(cells.get((int) (keys[i] & ((1L << INDEX_BITS) - 1))));
+        }
+        Batch batch = new Batch(blocks, nextY, nextY);
+        nextRing++;
+        if (nextRing * ringWidth > radius) {
+            nextRing = 0;
+            nextY--;
+        }
+        return batch;
+    }
+
+    @Override
+    protected MiningStrategy fresh() {
+        return new SpiralStrategy(area);
+    }
+
+    @Override
+    public String getName() {
+        return "spiral";
+    }
+}
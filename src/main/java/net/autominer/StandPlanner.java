@@ -0,0 +1,87 @@
+package net.autominer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Plans where to stand so that each stop mines as many blocks as possible: greedy set cover over the
+ * {@link StandRegion}s of a batch of targets. Every round takes the cell that covers the most targets
+ * not covered yet, so the first stops clear the most blocks; ties go to the cell closest to the
+ * previous stop. Cells covering fewer than {@link #MIN_COVER} targets are left to the normal
+ * one-target-at-a-time planning.
+ * <p>
+ * Only used on the client thread.
+ */
+public class StandPlanner {
+    static final int MIN_COVER = 2;
+
+    /** A cell to stand on and the targets to mine from there, in the order they were planned. */
+    public static class Stop {
+        final BlockPos cell;
+        final List<BlockPos> targets;
+
+        Stop(BlockPos cell, List<BlockPos> targets) {
+            this.cell = cell;
+            this.targets = targets;
+        }
+    }
+
+    private StandPlanner() {
+    }
+
+    /**
+     * @param blocked cells a path to a stop could not be found to; never planned as stops.
+     * @return the stops in the order to visit them, empty if no cell covers {@link #MIN_COVER} targets.
+     */
+    public static ArrayDeque<Stop> plan(PassabilityCache passability, LineOfSightCache sightCache, Collection<BlockPos> targets,
+                                        BlockPos from, Set<Long> blocked) {
+        Map<Long, List<BlockPos>> coverage = new HashMap<>();
+        for (BlockPos target : targets) {
+            for (long cell : StandRegion.compute(passability, target, sightCache).getCells()) {
+                if (blocked.contains(cell)) continue;
+                coverage.computeIfAbsent(cell, c -> new ArrayList<>()).add(target);
+            }
+        }
+
+        ArrayDeque<Stop> stops = new ArrayDeque<>();
+        Set<BlockPos> covered = new HashSet<>();
+        BlockPos previous = from;
+        while (true) {
+            long bestCell = 0;
+            int bestCount = 0;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (Map.Entry<Long, List<BlockPos>> entry : coverage.entrySet()) {
+                int count = 0;
+                for (BlockPos target : entry.getValue()) {
+                    if (!covered.contains(target)) count++;
+                }
+                if (count < MIN_COVER || count < bestCount) continue;
+                long cell = entry.getKey();
+                double dx = BlockPos.unpackLongX(cell) - previous.getX(), dy = BlockPos.unpackLongY(cell) - previous.getY(),
+                        dz = BlockPos.unpackLongZ(cell) - previous.getZ();
+                double distance = dx * dx + dy * dy + dz * dz;
+                if (count > bestCount || distance < bestDistance) {
+                    bestCell = cell;
+                    bestCount = count;
+                    bestDistance = distance;
+                }
+            }
+            if (bestDistance == Double.POSITIVE_INFINITY) return stops;
+
+            List<BlockPos> stopTargets = new ArrayList<>();
+            for (BlockPos target : coverage.remove(bestCell)) {
+                if (covered.add(target)) stopTargets.add(target);
+            }
+            previous = BlockPos.fromLong(bestCell);
+            stops.add(new Stop(previous, stopTargets));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.autominer;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * The set of cells the miner can stand on to mine one target: safe footing, eye within reach
+ * and line of sight to the target. Computed once per target instead of once per expanded node.
+ */
+public class StandRegion {
+    static final double EYE_HEIGHT = 1.62;
+    // Eye is 1.62 above the cell center, so a stand cell can be 6 below or 3 above the target.
+    static final int MAX_DY_BELOW = 6;
+    static final int MAX_DY_ABOVE = 3;
+    static final int MAX_HORIZONTAL = 4;
+
+    private final BlockPos target;
+    private final long[] cells;
+    private final LongIndexMap index;
+    // Bounding box of the cells, for the distance-to-region heuristic.
+    private int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+    private StandRegion(BlockPos target, long[] cells) {
+        this.target = target;
+        this.cells = cells;
+        this.index = new LongIndexMap(Math.max(cells.length, 1));
+        for (int i = 0; i < cells.length; i++) {
+            index.put(cells[i], i);
+            int x = BlockPos.unpackLongX(cells[i]), y = BlockPos.unpackLongY(cells[i]), z = BlockPos.unpackLongZ(cells[i]);
+            minX = Math.min(minX, x); maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y); maxY = Math.max(maxY, y);
+            minZ = Math.min(minZ, z); maxZ = Math.max(maxZ, z);
+        }
+    }
+
+    /** A region made of exactly one cell, for searches towards a known position. */
+    public static StandRegion single(BlockPos cell) {
+        return new StandRegion(cell, new long[] { cell.asLong() });
+    }
+
+    public static StandRegion compute(PassabilityCache passability, BlockPos target) {
+        return compute(passability, target, null);
+    }
+
+    /** @param sightCache line of sight answers to reuse, or null; only on the client thread. */
+    public static StandRegion compute(PassabilityCache passability, BlockPos target, @Nullable LineOfSightCache sightCache) {
+        long[] found = new long[64];
+        int count = 0;
+        for (int i = 0; i < ReachOffsets.STAND.length; i++) {
+            // Sorted by distance, so every cell from here on is too far.
+            if (ReachOffsets.STAND_DISTANCE_SQUARED[i] > MiningLogic.MAX_REACH_DISTANCE_SQUARED - 0.5) break;
+            int offset = ReachOffsets.STAND[i];
+            int x = target.getX() + ReachOffsets.x(offset), y = target.getY() + ReachOffsets.y(offset), z = target.getZ() + ReachOffsets.z(offset);
+            if (!passability.isSafeToStandOn(x, y, z)) continue;
+            boolean visible = sightCache != null ? sightCache.canSee(passability, x, y, z, target)
+                    : MiningLogic.canSee(passability, eyeOf(x, y, z), target);
+            if (!visible) continue;
+            if (count == found.length) found = Arrays.copyOf(found, count * 2);
+            found[count++] = BlockPos.asLong(x, y, z);
+        }
+        return new StandRegion(target, Arrays.copyOf(found, count));
+    }
+
+    /** The eye position planning assumes for a player standing in the cell {@code x, y, z}. */
+    static Vec3d eyeOf(int x, int y, int z) {
+        return new Vec3d(x + 0.5, y + 0.5 + EYE_HEIGHT, z + 0.5);
+    }
+
+    public BlockPos getTarget() {
+        return target;
+    }
+
+    public long[] getCells() {
+        return cells;
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    public boolean isEmpty() {
+        return cells.length == 0;
+    }
+
+    public boolean contains(long cell) {
+        return index.get(cell) >= 0;
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return contains(BlockPos.asLong(x, y, z));
+    }
+
+    /**
+     * Straight-line distance from x, y, z to the bounding box of the region. Never more than the
+     * distance to the closest cell, so it is admissible wherever the point heuristic was.
+     */
+    public double distanceTo(int x, int y, int z) {
+        if (cells.length == 0) return 0;
+        double dx = Math.max(0, Math.max(minX - x, x - maxX));
+        double dy = Math.max(0, Math.max(minY - y, y - maxY));
+        double dz = Math.max(0, Math.max(minZ - z, z - maxZ));
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
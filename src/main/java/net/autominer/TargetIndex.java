@@ -0,0 +1,155 @@
+package net.autominer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * The blocks left to mine, bucketed into a hash grid of {@link #BUCKET_SIZE}-block cubes, so the
+ * blocks closest to a point and the blocks within a radius of it are found by looking at the
+ * buckets around the point instead of the whole layer. Distances are measured to block centers.
+ * <p>
+ * Only used on the client thread.
+ */
+public class TargetIndex implements Iterable<BlockPos> {
+    static final int BUCKET_SIZE = 8;
+    private static final int BUCKET_SHIFT = 3;
+
+    private final Map<Long, List<BlockPos>> buckets = new HashMap<>();
+    private int size;
+    // Bounds of the bucket coordinates used so far; searches never look past them.
+    private int minBX = Integer.MAX_VALUE, minBY = Integer.MAX_VALUE, minBZ = Integer.MAX_VALUE;
+    private int maxBX = Integer.MIN_VALUE, maxBY = Integer.MIN_VALUE, maxBZ = Integer.MIN_VALUE;
+
+    /** @return false if the block was already in the index. */
+    public boolean add(BlockPos pos) {
+        int bx = pos.getX() >> BUCKET_SHIFT, by = pos.getY() >> BUCKET_SHIFT, bz = pos.getZ() >> BUCKET_SHIFT;
+        List<BlockPos> bucket = buckets.computeIfAbsent(BlockPos.asLong(bx, by, bz), key -> new ArrayList<>());
+        if (bucket.contains(pos)) return false;
+        bucket.add(pos.toImmutable());
+        size++;
+        minBX = Math.min(minBX, bx);
+        minBY = Math.min(minBY, by);
+        minBZ = Math.min(minBZ, bz);
+        maxBX = Math.max(maxBX, bx);
+        maxBY = Math.max(maxBY, by);
+        maxBZ = Math.max(maxBZ, bz);
+        return true;
+    }
+
+    public void addAll(Iterable<BlockPos> positions) {
+        for (BlockPos pos : positions) {
+            add(pos);
+        }
+    }
+
+    public boolean remove(BlockPos pos) {
+        long key = bucketKey(pos);
+        List<BlockPos> bucket = buckets.get(key);
+        if (bucket == null || !bucket.remove(pos)) return false;
+        if (bucket.isEmpty()) buckets.remove(key);
+        size--;
+        return true;
+    }
+
+    public boolean contains(BlockPos pos) {
+        List<BlockPos> bucket = buckets.get(bucketKey(pos));
+        return bucket != null && bucket.contains(pos);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        buckets.clear();
+        size = 0;
+        minBX = minBY = minBZ = Integer.MAX_VALUE;
+        maxBX = maxBY = maxBZ = Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return up to {@code count} blocks closest to {@code center}, closest first. Visits the buckets
+     *         in growing shells around the center and stops once no unvisited bucket can hold a closer block.
+     */
+    public List<BlockPos> nearest(Vec3d center, int count) {
+        List<BlockPos> result = new ArrayList<>(count + 1);
+        List<Double> distances = new ArrayList<>(count + 1);
+        if (isEmpty() || count <= 0) return result;
+        int cx = bucketOf(center.x), cy = bucketOf(center.y), cz = bucketOf(center.z);
+        int maxRing = Math.max(Math.max(Math.max(cx - minBX, maxBX - cx), Math.max(cy - minBY, maxBY - cy)),
+                Math.max(cz - minBZ, maxBZ - cz));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int bx = Math.max(cx - ring, minBX); bx <= Math.min(cx + ring, maxBX); bx++) {
+                for (int by = Math.max(cy - ring, minBY); by <= Math.min(cy + ring, maxBY); by++) {
+                    for (int bz = Math.max(cz - ring, minBZ); bz <= Math.min(cz + ring, maxBZ); bz++) {
+                        if (Math.max(Math.abs(bx - cx), Math.max(Math.abs(by - cy), Math.abs(bz - cz))) != ring) continue;
+                        List<BlockPos> bucket = buckets.get(BlockPos.asLong(bx, by, bz));
+                        if (bucket == null) continue;
+                        for (BlockPos pos : bucket) {
+                            double distance = squaredDistance(center, pos);
+                            if (result.size() == count && distance >= distances.get(count - 1)) continue;
+                            int at = result.size();
+                            while (at > 0 && distances.get(at - 1) > distance) at--;
+                            result.add(at, pos);
+                            distances.add(at, distance);
+                            if (result.size() > count) {
+                                result.remove(count);
+                                distances.remove(count);
+                            }
+                        }
+                    }
+                }
+            }
+            // Every bucket outside this shell is at least ring buckets away from the center's bucket.
+            double bound = (double) ring * BUCKET_SIZE;
+            if (result.size() == count && distances.get(count - 1) <= bound * bound) break;
+        }
+        return result;
+    }
+
+    /** @return every block whose center is within {@code radius} of {@code center}. */
+    public List<BlockPos> within(Vec3d center, double radius) {
+        List<BlockPos> result = new ArrayList<>();
+        double radiusSquared = radius * radius;
+        for (int bx = Math.max(bucketOf(center.x - radius), minBX); bx <= Math.min(bucketOf(center.x + radius), maxBX); bx++) {
+            for (int by = Math.max(bucketOf(center.y - radius), minBY); by <= Math.min(bucketOf(center.y + radius), maxBY); by++) {
+                for (int bz = Math.max(bucketOf(center.z - radius), minBZ); bz <= Math.min(bucketOf(center.z + radius), maxBZ); bz++) {
+                    List<BlockPos> bucket = buckets.get(BlockPos.asLong(bx, by, bz));
+                    if (bucket == null) continue;
+                    for (BlockPos pos : bucket) {
+                        if (squaredDistance(center, pos) <= radiusSquared) result.add(pos);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<BlockPos> iterator() {
+        return buckets.values().stream().flatMap(List::stream).iterator();
+    }
+
+    private static long bucketKey(BlockPos pos) {
+        return BlockPos.asLong(pos.getX() >> BUCKET_SHIFT, pos.getY() >> BUCKET_SHIFT, pos.getZ() >> BUCKET_SHIFT);
+    }
+
+    private static int bucketOf(double coordinate) {
+        return (int) Math.floor(coordinate) >> BUCKET_SHIFT;
+    }
+
+    private static double squaredDistance(Vec3d center, BlockPos pos) {
+        double dx = pos.getX() + 0.5 - center.x, dy = pos.getY() + 0.5 - center.y, dz = pos.getZ() + 0.5 - center.z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
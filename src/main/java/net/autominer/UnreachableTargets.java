@@ -0,0 +1,99 @@
+package net.autominer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Negative cache of targets a search failed to reach. Each entry remembers why it failed and the
+ * chunk sections the failed search read; the entry is dropped as soon as one of those sections
+ * gets a block update, since only then can a new search come to a different answer.
+ * <p>
+ * Only used on the client thread.
+ */
+public class UnreachableTargets {
+    private final Map<BlockPos, Entry> entries = new HashMap<>();
+    private final Map<Long, Set<BlockPos>> targetsBySection = new HashMap<>();
+    // Sequence number of the last update per section, to catch updates that arrive while a search runs.
+    private final Map<Long, Long> lastUpdate = new HashMap<>();
+    private long updateSequence;
+
+    /** @return a stamp to pass to {@link #record} for a search that starts now. */
+    public long stamp() {
+        return updateSequence;
+    }
+
+    /**
+     * Remembers that the search for {@code target} failed.
+     * @param sections section keys ({@link BlockPos#asLong} of section coordinates) the search read.
+     * @param searchStamp {@link #stamp()} taken when the search started; if any of the sections changed
+     *                    since then, the result is already outdated and nothing is recorded.
+     * @return true if the target was recorded.
+     */
+    public boolean record(BlockPos target, PathFindResultType reason, long[] sections, long searchStamp) {
+        for (long section : sections) {
+            if (lastUpdate.getOrDefault(section, -1L) >= searchStamp) return false;
+        }
+        remove(target);
+        BlockPos key = target.toImmutable();
+        entries.put(key, new Entry(reason, sections));
+        for (long section : sections) {
+            targetsBySection.computeIfAbsent(section, s -> new HashSet<>()).add(key);
+        }
+        return true;
+    }
+
+    public boolean contains(BlockPos target) {
+        return entries.containsKey(target);
+    }
+
+    public PathFindResultType getReason(BlockPos target) {
+        Entry entry = entries.get(target);
+        return entry == null ? null : entry.reason;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Forgets every target whose failed search read the section containing {@code pos}. */
+    public void onBlockUpdate(BlockPos pos) {
+        long section = BlockPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        lastUpdate.put(section, updateSequence++);
+        Set<BlockPos> targets = targetsBySection.remove(section);
+        if (targets == null) return;
+        for (BlockPos target : targets) {
+            remove(target);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        targetsBySection.clear();
+        lastUpdate.clear();
+    }
+
+    private void remove(BlockPos target) {
+        Entry entry = entries.remove(target);
+        if (entry == null) return;
+        for (long section : entry.sections) {
+            Set<BlockPos> targets = targetsBySection.get(section);
+            if (targets == null) continue;
+            targets.remove(target);
+            if (targets.isEmpty()) targetsBySection.remove(section);
+        }
+    }
+
+    private static class Entry {
+        final PathFindResultType reason;
+        final long[] sections;
+
+        Entry(PathFindResultType reason, long[] sections) {
+            this.reason = reason;
+            this.sections = sections;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package net.autominer;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.BlockView;
+
+/**
+ * Every block within reach of one eye position that has a face the player can hit, with the point
+ * to aim at and the face it is on. Built in one sweep over the reach sphere: only faces that point
+ * towards the eye and are not covered by a full neighbor are tested, so blocks inside solid rock
+ * cost one block lookup. A face counts as visible if a ray reaches its center or one of its corners,
+ * so blocks seen past an edge are mined from where the player stands instead of repositioning.
+ * Rays are traced with the {@link VoxelRaycaster}.
+ * <p>
+ * Immutable once computed; block updates inside {@link #covers} make it stale.
+ */
+public class VisibilityField {
+    // Aim points this far in from the corners, so rays do not graze the neighbors' edges.
+    private static final double CORNER_INSET = 0.4;
+    // Aim points sit this far inside the block, so the ray ends in the target rather than on its surface.
+    private static final double SURFACE_DEPTH = 0.01;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Vec3d eye;
+    private final int minX, minY, minZ, size;
+    // Per cell: index of the visible face in Direction order, or -1; and where to aim on it.
+    private final byte[] faces;
+    private final float[] aimX, aimY, aimZ;
+
+    private VisibilityField(Vec3d eye, int radius) {
+        this.eye = eye;
+        this.minX = (int) Math.floor(eye.x) - radius;
+        this.minY = (int) Math.floor(eye.y) - radius;
+        this.minZ = (int) Math.floor(eye.z) - radius;
+        this.size = 2 * radius + 1;
+        int cells = size * size * size;
+        this.faces = new byte[cells];
+        this.aimX = new float[cells];
+        this.aimY = new float[cells];
+        this.aimZ = new float[cells];
+    }
+
+    /**
+     * Finds the visible face of every block whose center is within {@code reach} of {@code eye}. Traced
+     * directly rather than through the {@link LineOfSightCache}, since the player's eye is not on a
+     * stand cell's fixed eye.
+     */
+    public static VisibilityField compute(PassabilityCache passability, Vec3d eye, double reach) {
+        BlockView world = passability.getWorld();
+        VisibilityField field = new VisibilityField(eye, (int) Math.ceil(reach) + 1);
+        double reachSquared = reach * reach;
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (int x = field.minX; x < field.minX + field.size; x++) {
+            for (int y = field.minY; y < field.minY + field.size; y++) {
+                for (int z = field.minZ; z < field.minZ + field.size; z++) {
+                    int cell = field.index(x, y, z);
+                    field.faces[cell] = -1;
+                    double dx = x + 0.5 - eye.x, dy = y + 0.5 - eye.y, dz = z + 0.5 - eye.z;
+                    if (dx * dx + dy * dy + dz * dz > reachSquared) continue;
+                    pos.set(x, y, z);
+                    if (world.getBlockState(pos).isAir()) continue;
+                    Vec3d aim = findAimPoint(passability, eye, pos);
+                    if (aim == null) continue;
+                    field.faces[cell] = (byte) faceOf(pos, aim).ordinal();
+                    field.aimX[cell] = (float) aim.x;
+                    field.aimY[cell] = (float) aim.y;
+                    field.aimZ[cell] = (float) aim.z;
+                }
+            }
+        }
+        return field;
+    }
+
+    /**
+     * The best point to aim at to hit {@code target} from {@code eye}: the center or a corner of a
+     * face pointing towards the eye, the faces that point most directly at it first.
+     * @return the point, or null if no face of the target can be hit.
+     */
+    @Nullable
+    public static Vec3d findAimPoint(PassabilityCache passability, Vec3d eye, BlockPos target) {
+        for (Direction face : facesTowards(eye, target)) {
+            if (face == null) break;
+            if (passability.isFullCube(target.getX() + face.getOffsetX(), target.getY() + face.getOffsetY(), target.getZ() + face.getOffsetZ())) continue;
+            double cx = target.getX() + 0.5 + face.getOffsetX() * (0.5 - SURFACE_DEPTH);
+            double cy = target.getY() + 0.5 + face.getOffsetY() * (0.5 - SURFACE_DEPTH);
+            double cz = target.getZ() + 0.5 + face.getOffsetZ() * (0.5 - SURFACE_DEPTH);
+            // Center first, then the four corners; the tangent axes are the two the face does not point along.
+            for (int corner = -1; corner < 4; corner++) {
+                double u = corner < 0 ? 0 : (corner & 1) == 0 ? -CORNER_INSET : CORNER_INSET;
+                double v = corner < 0 ? 0 : (corner & 2) == 0 ? -CORNER_INSET : CORNER_INSET;
+                Vec3d point = switch (face.getAxis()) {
+                    case X -> new Vec3d(cx, cy + u, cz + v);
+                    case Y -> new Vec3d(cx + u, cy, cz + v);
+                    case Z -> new Vec3d(cx + u, cy + v, cz);
+                };
+                if (VoxelRaycaster.isClear(passability, eye, point, target)) return point;
+            }
+        }
+        return null;
+    }
+
+    /** True if a face of {@code target} points towards {@code eye} without a full cube in front of it: the one test before any ray is traced. */
+    static boolean hasOpenFace(PassabilityCache passability, Vec3d eye, BlockPos target) {
+        for (Direction face : facesTowards(eye, target)) {
+            if (face == null) break;
+            if (!passability.isFullCube(target.getX() + face.getOffsetX(), target.getY() + face.getOffsetY(), target.getZ() + face.getOffsetZ())) return true;
+        }
+        return false;
+    }
+
+    public Vec3d getEye() {
+        return eye;
+    }
+
+    /** True if {@code pos} lies in the box the field was computed over, so a change there can change it. */
+    public boolean covers(BlockPos pos) {
+        return index(pos.getX(), pos.getY(), pos.getZ()) >= 0;
+    }
+
+    public boolean isVisible(BlockPos pos) {
+        int cell = index(pos.getX(), pos.getY(), pos.getZ());
+        return cell >= 0 && faces[cell] >= 0;
+    }
+
+    /** @return where to aim to hit {@code pos}, or null if it is not visible. */
+    @Nullable
+    public Vec3d getAimPoint(BlockPos pos) {
+        int cell = index(pos.getX(), pos.getY(), pos.getZ());
+        if (cell < 0 || faces[cell] < 0) return null;
+        return new Vec3d(aimX[cell], aimY[cell], aimZ[cell]);
+    }
+
+    /** @return the face to hit {@code pos} on, or null if it is not visible. */
+    @Nullable
+    public Direction getFace(BlockPos pos) {
+        int cell = index(pos.getX(), pos.getY(), pos.getZ());
+        return cell < 0 || faces[cell] < 0 ? null : DIRECTIONS[faces[cell]];
+    }
+
+    /** The face of {@code target} an aim point from {@link #findAimPoint} lies on. */
+    static Direction faceOf(BlockPos target, Vec3d aim) {
+        double dx = aim.x - (target.getX() + 0.5), dy = aim.y - (target.getY() + 0.5), dz = aim.z - (target.getZ() + 0.5);
+        double ax = Math.abs(dx), ay = Math.abs(dy), az = Math.abs(dz);
+        if (ax >= ay && ax >= az) return dx > 0 ? Direction.EAST : Direction.WEST;
+        if (ay >= az) return dy > 0 ? Direction.UP : Direction.DOWN;
+        return dz > 0 ? Direction.SOUTH : Direction.NORTH;
+    }
+
+    /** The up to three faces of {@code target} whose outside the eye is on, most directly facing it first; null-padded. */
+    private static Direction[] facesTowards(Vec3d eye, BlockPos target) {
+        Direction[] faces = new Direction[3];
+        double[] margins = new double[3];
+        int count = 0;
+        for (Direction face : DIRECTIONS) {
+            double margin = switch (face) {
+                case EAST -> eye.x - (target.getX() + 1);
+                case WEST -> target.getX() - eye.x;
+                case UP -> eye.y - (target.getY() + 1);
+                case DOWN -> target.getY() - eye.y;
+                case SOUTH -> eye.z - (target.getZ() + 1);
+                case NORTH -> target.getZ() - eye.z;
+            };
+            if (margin <= 0) continue;
+            int at = count++;
+            while (at > 0 && margins[at - 1] < margin) {
+                faces[at] = faces[at - 1];
+                margins[at] = margins[at - 1];
+                at--;
+            }
+            faces[at] = face;
+            margins[at] = margin;
+        }
+        return faces;
+    }
+
+    private int index(int x, int y, int z) {
+        int dx = x - minX, dy = y - minY, dz = z - minZ;
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= size || dy >= size || dz >= size) return -1;
+        return (dx * size + dz) * size + dy;
+    }
+}
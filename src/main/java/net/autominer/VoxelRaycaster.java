@@ -0,0 +1,63 @@
+package net.autominer;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.BlockView;
+
+/**
+ * Line of sight by walking the cells a segment crosses (Amanatides and Woo) over the collision bits of a
+ * {@link PassabilityCache}: empty cells let the ray through and full cubes stop it without looking
+ * at the block. Only partial blocks such as slabs, stairs or fences are tested against their real
+ * collision shape. Gives the same answers as a collider raycast through the world without building
+ * a context or resolving a shape per cell.
+ * <p>
+ * Uses the cache it is given, so it runs on whichever thread owns that cache.
+ */
+public final class VoxelRaycaster {
+    private VoxelRaycaster() {
+    }
+
+    /**
+     * True if the segment from {@code from} to {@code to} reaches {@code target}: every cell it crosses
+     * before the target is empty, ignorable vegetation or a partial block the segment misses.
+     */
+    public static boolean isClear(PassabilityCache passability, Vec3d from, Vec3d to, BlockPos target) {
+        int x = MathHelper.floor(from.x), y = MathHelper.floor(from.y), z = MathHelper.floor(from.z);
+        int endX = MathHelper.floor(to.x), endY = MathHelper.floor(to.y), endZ = MathHelper.floor(to.z);
+        double dx = to.x - from.x, dy = to.y - from.y, dz = to.z - from.z;
+        int stepX = Integer.signum(endX - x), stepY = Integer.signum(endY - y), stepZ = Integer.signum(endZ - z);
+        // Segment parameter at which the ray crosses the next cell boundary on each axis, and per whole cell.
+        double tMaxX = stepX == 0 ? Double.POSITIVE_INFINITY : ((stepX > 0 ? x + 1 : x) - from.x) / dx;
+        double tMaxY = stepY == 0 ? Double.POSITIVE_INFINITY : ((stepY > 0 ? y + 1 : y) - from.y) / dy;
+        double tMaxZ = stepZ == 0 ? Double.POSITIVE_INFINITY : ((stepZ > 0 ? z + 1 : z) - from.z) / dz;
+        double tDeltaX = stepX == 0 ? Double.POSITIVE_INFINITY : stepX / dx;
+        double tDeltaY = stepY == 0 ? Double.POSITIVE_INFINITY : stepY / dy;
+        double tDeltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : stepZ / dz;
+        int steps = Math.abs(endX - x) + Math.abs(endY - y) + Math.abs(endZ - z);
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+
+        for (int i = 0; ; i++) {
+            if (x == target.getX() && y == target.getY() && z == target.getZ()) return true;
+            if (passability.isFullCube(x, y, z)) return false;
+            if (!passability.isWalkable(x, y, z) && hitsShape(passability.getWorld(), pos.set(x, y, z), from, to)) return false;
+            if (i == steps) return true;
+            if (tMaxX <= tMaxY && tMaxX <= tMaxZ) {
+                x += stepX;
+                tMaxX += tDeltaX;
+            } else if (tMaxY <= tMaxZ) {
+                y += stepY;
+                tMaxY += tDeltaY;
+            } else {
+                z += stepZ;
+                tMaxZ += tDeltaZ;
+            }
+        }
+    }
+
+    private static boolean hitsShape(BlockView world, BlockPos pos, Vec3d from, Vec3d to) {
+        BlockState state = world.getBlockState(pos);
+        return state.getCollisionShape(world, pos).raycast(from, to, pos) != null;
+    }
+}
@@ -0,0 +1,22 @@
+package net.autominer.mixin;
+
+import net.autominer.AutoMinerClient;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ClientWorld.class)
+public class ClientWorldMixin {
+
+    @Inject(method = "scheduleBlockRerenderIfNeeded", at = @At("HEAD"))
+    private void onBlockChanged(BlockPos pos, BlockState old, BlockState updated, CallbackInfo ci) {
+        // Called for every block state change on the client (server updates and local predictions).
+        if (AutoMinerClient.getMiningLogic() != null) {
+            AutoMinerClient.getMiningLogic().onBlockUpdate(pos);
+        }
+    }
+}